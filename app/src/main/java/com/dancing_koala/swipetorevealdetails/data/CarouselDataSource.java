@@ -0,0 +1,24 @@
+package com.dancing_koala.swipetorevealdetails.data;
+
+import java.util.List;
+
+/**
+ * Source of the carousel items, typically backed by a database or a large file.
+ * Every method is called on a background thread of a {@link PagedItemLoader}, one call at a time.
+ */
+public interface CarouselDataSource {
+
+    /**
+     * @return the total count of items
+     */
+    int getCount();
+
+    /**
+     * Loads a range of items
+     *
+     * @param start position of the first item
+     * @param count count of items wanted, fewer being returned at the end of the source
+     * @return the items, in position order
+     */
+    List<CarouselItem> load(int start, int count);
+}
@@ -0,0 +1,44 @@
+package com.dancing_koala.swipetorevealdetails.data;
+
+import android.text.TextUtils;
+
+/**
+ * Immutable content of a carousel card
+ */
+public class CarouselItem {
+
+    private final long id;
+    private final String title;
+    private final int imageResID;
+
+    /**
+     * @param id         stable identifier, unique in the data source
+     * @param title      Self-explanatory
+     * @param imageResID drawable resource ID of the image, 0 for none
+     */
+    public CarouselItem(long id, String title, int imageResID) {
+        this.id = id;
+        this.title = title;
+        this.imageResID = imageResID;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getImageResID() {
+        return imageResID;
+    }
+
+    /**
+     * @param other item with the same ID
+     * @return true if both items display the same way
+     */
+    public boolean hasSameContent(CarouselItem other) {
+        return imageResID == other.imageResID && TextUtils.equals(title, other.title);
+    }
+}
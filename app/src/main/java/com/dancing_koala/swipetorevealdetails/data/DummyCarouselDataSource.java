@@ -0,0 +1,51 @@
+package com.dancing_koala.swipetorevealdetails.data;
+
+import android.content.Context;
+
+import com.dancing_koala.swipetorevealdetails.R;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data source of the demo, synthesizing the items from their position
+ */
+public class DummyCarouselDataSource implements CarouselDataSource {
+
+    private static final int ITEM_COUNT = 4;
+
+    private final Context context;
+
+    /**
+     * @param context Context used to resolve the strings and drawables
+     */
+    public DummyCarouselDataSource(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * @see CarouselDataSource#getCount()
+     */
+    @Override
+    public int getCount() {
+        return ITEM_COUNT;
+    }
+
+    /**
+     * @see CarouselDataSource#load(int, int)
+     */
+    @Override
+    public List<CarouselItem> load(int start, int count) {
+        final int end = Math.min(start + count, ITEM_COUNT);
+        final String title = context.getString(R.string.dummy_content);
+
+        List<CarouselItem> items = new ArrayList<>(Math.max(end - start, 0));
+
+        for (int position = start; position < end; position++) {
+            int imgResID = context.getResources().getIdentifier("landscape_" + position, "drawable", context.getPackageName());
+            items.add(new CarouselItem(position, title + " " + position, imgResID));
+        }
+
+        return items;
+    }
+}
@@ -0,0 +1,86 @@
+package com.dancing_koala.swipetorevealdetails.data;
+
+import android.util.SparseArray;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Difference between two versions of the loaded carousel items, computed off the main thread
+ * so that only the pages that actually changed are updated.
+ */
+public class ItemDiff {
+
+    private final boolean structureChanged;
+    private final int[] changedPositions;
+
+    private ItemDiff(boolean structureChanged, int[] changedPositions) {
+        this.structureChanged = structureChanged;
+        this.changedPositions = changedPositions;
+    }
+
+    /**
+     * Compares the pages loaded in both versions
+     *
+     * @param oldCount item count before
+     * @param oldPages pages loaded before, keyed by page index
+     * @param newCount item count after
+     * @param newPages pages loaded after, keyed by page index
+     * @param pageSize count of items in a full page
+     * @return the difference
+     */
+    static ItemDiff compute(int oldCount, SparseArray<List<CarouselItem>> oldPages,
+                            int newCount, SparseArray<List<CarouselItem>> newPages, int pageSize) {
+        boolean structureChanged = oldCount != newCount;
+        int[] changed = new int[8];
+        int changedCount = 0;
+
+        for (int i = 0; i < newPages.size(); i++) {
+            final List<CarouselItem> oldItems = oldPages.get(newPages.keyAt(i));
+            final List<CarouselItem> newItems = newPages.valueAt(i);
+
+            // Nothing was displayed from a page not loaded before
+            if (oldItems == null) continue;
+
+            if (oldItems.size() != newItems.size()) structureChanged = true;
+
+            final int firstPosition = newPages.keyAt(i) * pageSize;
+            final int size = Math.min(oldItems.size(), newItems.size());
+
+            for (int j = 0; j < size; j++) {
+                final CarouselItem oldItem = oldItems.get(j);
+                final CarouselItem newItem = newItems.get(j);
+
+                if (oldItem.getId() != newItem.getId()) {
+                    structureChanged = true;
+                } else if (!oldItem.hasSameContent(newItem)) {
+                    if (changedCount == changed.length) changed = Arrays.copyOf(changed, changedCount * 2);
+                    changed[changedCount++] = firstPosition + j;
+                }
+            }
+        }
+
+        return new ItemDiff(structureChanged, Arrays.copyOf(changed, changedCount));
+    }
+
+    /**
+     * @return true when items were inserted, removed or moved, their positions changing
+     */
+    public boolean isStructureChanged() {
+        return structureChanged;
+    }
+
+    /**
+     * @return positions of the items whose content changed in place
+     */
+    public int[] getChangedPositions() {
+        return changedPositions;
+    }
+
+    /**
+     * @return true if nothing changed
+     */
+    public boolean isEmpty() {
+        return !structureChanged && changedPositions.length == 0;
+    }
+}
@@ -0,0 +1,251 @@
+package com.dancing_koala.swipetorevealdetails.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads the items of a {@link CarouselDataSource} in pages on a background thread, around the
+ * positions being displayed. Reloading publishes the difference with the previous version
+ * instead of a blanket change.
+ * Every public method must be called from the main thread, the callback is called on it.
+ */
+public class PagedItemLoader {
+
+    /**
+     * Receives the changes of the loaded items
+     */
+    public interface Callback {
+        /**
+         * Called when a page has been loaded, its items being known from now on
+         *
+         * @param start position of the first item loaded
+         * @param count count of items loaded
+         */
+        void onItemsLoaded(int start, int count);
+
+        /**
+         * Called when a reload changed the count or the loaded items
+         *
+         * @param diff difference with the previous version, never empty
+         */
+        void onItemsChanged(ItemDiff diff);
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Count of items loaded ahead of and behind the displayed position
+     */
+    private static final int DEFAULT_PREFETCH_DISTANCE = 10;
+
+    private final CarouselDataSource dataSource;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final Handler mainHandler;
+    private final ExecutorService loadExecutor;
+
+    /**
+     * Loaded items, keyed by page index. Page lists are never modified once loaded.
+     */
+    private SparseArray<List<CarouselItem>> pages;
+
+    /**
+     * Indexes of the pages being loaded
+     */
+    private final SparseBooleanArray loadingPages;
+
+    private Callback callback;
+    private int count;
+
+    /**
+     * Incremented by each reload, so that results of older loads are dropped
+     */
+    private int generation;
+
+    /**
+     * @param dataSource source of the items
+     */
+    public PagedItemLoader(CarouselDataSource dataSource) {
+        this(dataSource, DEFAULT_PAGE_SIZE, DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    /**
+     * @param dataSource       source of the items
+     * @param pageSize         count of items loaded at once
+     * @param prefetchDistance count of items loaded ahead of and behind the displayed position
+     */
+    public PagedItemLoader(CarouselDataSource dataSource, int pageSize, int prefetchDistance) {
+        this.dataSource = dataSource;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+
+        pages = new SparseArray<>();
+        loadingPages = new SparseBooleanArray();
+        mainHandler = new Handler(Looper.getMainLooper());
+        loadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "PagedItemLoader");
+            }
+        });
+    }
+
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * @return count of items known so far, 0 until the first load is over
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param position Self-explanatory
+     * @return the item if its page is loaded, null otherwise
+     */
+    public CarouselItem getItem(int position) {
+        if (position < 0 || position >= count) return null;
+
+        List<CarouselItem> page = pages.get(position / pageSize);
+        int index = position % pageSize;
+
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    /**
+     * Finds the current position of an item among the loaded ones
+     *
+     * @param id   ID of the item
+     * @param hint position to look at first, typically the previous one
+     * @return the position, -1 if the item is not loaded anymore
+     */
+    public int findPosition(long id, int hint) {
+        CarouselItem item = getItem(hint);
+
+        if (item != null && item.getId() == id) return hint;
+
+        for (int i = 0; i < pages.size(); i++) {
+            List<CarouselItem> page = pages.valueAt(i);
+
+            for (int j = 0; j < page.size(); j++) {
+                if (page.get(j).getId() == id) return pages.keyAt(i) * pageSize + j;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Loads the pages around a position not loaded yet
+     *
+     * @param position displayed position
+     */
+    public void prefetchAround(int position) {
+        if (count <= 0) return;
+
+        final int firstPage = Math.max(position - prefetchDistance, 0) / pageSize;
+        final int lastPage = Math.min(position + prefetchDistance, count - 1) / pageSize;
+
+        for (int page = firstPage; page <= lastPage; page++) {
+            if (pages.get(page) == null && !loadingPages.get(page)) loadPage(page);
+        }
+    }
+
+    private void loadPage(final int page) {
+        final int loadGeneration = generation;
+
+        loadingPages.put(page, true);
+
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<CarouselItem> items = dataSource.load(page * pageSize, pageSize);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // A reload started meanwhile and queued this page again behind it
+                        if (loadGeneration != generation) return;
+
+                        loadingPages.delete(page);
+                        pages.put(page, items);
+
+                        if (callback != null && !items.isEmpty()) callback.onItemsLoaded(page * pageSize, items.size());
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Reloads the count and the loaded pages, then publishes the difference with the current
+     * version. Also starts the first load.
+     */
+    public void reload() {
+        final int reloadGeneration = ++generation;
+        final int oldCount = count;
+        final SparseArray<List<CarouselItem>> oldPages = pages.clone();
+        final int[] pageIndexes = new int[Math.max(oldPages.size(), 1)];
+
+        // The first page is loaded along with the count the first time
+        for (int i = 0; i < oldPages.size(); i++) {
+            pageIndexes[i] = oldPages.keyAt(i);
+        }
+
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int newCount = dataSource.getCount();
+                final SparseArray<List<CarouselItem>> newPages = new SparseArray<>(pageIndexes.length);
+
+                for (int page : pageIndexes) {
+                    if (page * pageSize < newCount) newPages.put(page, dataSource.load(page * pageSize, pageSize));
+                }
+
+                final ItemDiff diff = ItemDiff.compute(oldCount, oldPages, newCount, newPages, pageSize);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (reloadGeneration != generation) return;
+
+                        count = newCount;
+                        pages = newPages;
+
+                        if (callback != null && !diff.isEmpty()) callback.onItemsChanged(diff);
+                    }
+                });
+            }
+        });
+
+        // The pages being loaded are dropped by the new generation, they are loaded again behind
+        // the reload, the executor running one task at a time
+        for (int i = 0; i < loadingPages.size(); i++) {
+            loadPage(loadingPages.keyAt(i));
+        }
+    }
+
+    /**
+     * Stops the background loads, the loader cannot be used anymore
+     */
+    public void release() {
+        generation++;
+        loadExecutor.shutdownNow();
+    }
+}
@@ -5,17 +5,85 @@ import android.support.v4.view.ViewPager;
 import android.support.v7.app.AppCompatActivity;
 
 import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.data.DummyCarouselDataSource;
 import com.dancing_koala.swipetorevealdetails.ui.adapters.CarouselPagerAdapter;
+import com.dancing_koala.swipetorevealdetails.ui.listeners.AdaptiveOffscreenPageListener;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.StartupMarkers;
+import com.dancing_koala.swipetorevealdetails.ui.pools.ItemViewPool;
 
 public class SwipeRevealDetailsActivity extends AppCompatActivity {
 
+    /**
+     * Keeps a window of live pages adapted to the scroll and to the memory
+     */
+    private AdaptiveOffscreenPageListener pageWindow;
+
+    /**
+     * Startup stages of the screen, to track the time to the first card
+     */
+    private StartupMarkers startupMarkers;
+
+    private CarouselPagerAdapter adapter;
+    private ItemViewPool itemViewPool;
+    private ViewPager carousel;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        startupMarkers = new StartupMarkers();
+        startupMarkers.mark(StartupMarkers.MARKER_ACTIVITY_CREATE);
+
         super.onCreate(savedInstanceState);
+
+        pageWindow = new AdaptiveOffscreenPageListener(this);
+
+        // Inflating the items of the smallest window off the main thread while the activity's
+        // own layout is inflated, the pool being able to hold the largest one
+        itemViewPool = new ItemViewPool(this, 2 * pageWindow.getMaxLimit() + 1);
+        itemViewPool.prewarm(R.layout.strd_item, 2 * AdaptiveOffscreenPageListener.MIN_LIMIT + 1);
+
         setContentView(R.layout.activity_swipe_reveal_details);
 
-        ViewPager carousel = (ViewPager) findViewById(R.id.vp_carousel);
-        carousel.setAdapter(new CarouselPagerAdapter(this));
-        carousel.setOffscreenPageLimit(3);
+        adapter = new CarouselPagerAdapter(this, itemViewPool, new DummyCarouselDataSource(this));
+        // Only the current card is bound for the first frame, its neighbors following
+        adapter.setStagedStartup(startupMarkers);
+
+        carousel = (ViewPager) findViewById(R.id.vp_carousel);
+        carousel.setAdapter(adapter);
+
+        pageWindow.setPrefetchListener(adapter);
+        pageWindow.attach(carousel);
+        registerComponentCallbacks(pageWindow);
+    }
+
+    /**
+     * @return the startup stages of the screen, the markers being set as they are reached
+     */
+    public StartupMarkers getStartupMarkers() {
+        return startupMarkers;
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+
+        // The offscreen pages may have dropped their image while the UI was hidden
+        adapter.restoreTrimmedImages();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        // Everything dropped is rebuilt on demand by the cards and the adapter
+        adapter.trimMemory(level, carousel.getCurrentItem());
+        itemViewPool.trimMemory(level);
+    }
+
+    @Override
+    protected void onDestroy() {
+        unregisterComponentCallbacks(pageWindow);
+        pageWindow.detach();
+        adapter.release();
+        super.onDestroy();
     }
 }
@@ -0,0 +1,44 @@
+package com.dancing_koala.swipetorevealdetails.ui.activities;
+
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.data.DummyCarouselDataSource;
+import com.dancing_koala.swipetorevealdetails.ui.adapters.RevealCardFeedAdapter;
+
+/**
+ * Displays the cards as a vertical feed, only the visible ones being live views
+ */
+public class SwipeRevealFeedActivity extends AppCompatActivity {
+
+    private RevealCardFeedAdapter adapter;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_swipe_reveal_feed);
+
+        adapter = new RevealCardFeedAdapter(this, new DummyCarouselDataSource(this));
+        adapter.restoreState(savedInstanceState);
+
+        RecyclerView feed = (RecyclerView) findViewById(R.id.rv_feed);
+        feed.setLayoutManager(new LinearLayoutManager(this));
+        feed.setHasFixedSize(true);
+        feed.setAdapter(adapter);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        adapter.saveState(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        adapter.release();
+        super.onDestroy();
+    }
+}
@@ -0,0 +1,218 @@
+package com.dancing_koala.swipetorevealdetails.ui.adapters;
+
+import android.view.View;
+
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+
+/**
+ * Binds items to swipe to reveal cards, only touching the views whose field changed since the
+ * last bind. The views of a card are looked up once into a {@link CardViews}, kept in the card's
+ * tag with the item they display, and the back view content is bound when it gets inflated.
+ * Every change of a bind is applied in one go, so that at most one layout pass follows.
+ * Must be used on the main thread.
+ *
+ * @param <T> type of the items
+ * @param <V> type of the views of a card
+ */
+public abstract class CardBinder<T, V extends CardBinder.CardViews<T>> implements SwipeToRevealLayout.OnBackViewContentListener {
+
+    /**
+     * Changes for a card bound for the first time or unbound since, every field being bound
+     */
+    public static final int CHANGED_ALL = ~0;
+
+    /**
+     * Views of a card, looked up once, and the item they display
+     *
+     * @param <T> type of the items
+     */
+    public static class CardViews<T> {
+
+        public final SwipeToRevealLayout card;
+
+        private boolean bound;
+        private boolean backBound;
+        private T item;
+
+        /**
+         * @param card Self-explanatory
+         */
+        protected CardViews(SwipeToRevealLayout card) {
+            this.card = card;
+        }
+
+        /**
+         * @return item displayed by the card, null while loading or when unbound
+         */
+        public T getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * @return the views of the card, looked up on the first call
+     */
+    @SuppressWarnings("unchecked")
+    public final V getViews(SwipeToRevealLayout card) {
+        V views = (V) card.getTag(R.id.strd_tag_card_views);
+
+        if (views == null) {
+            views = createViews(card);
+            card.setTag(R.id.strd_tag_card_views, views);
+            card.setOnBackViewContentListener(this);
+
+            if (card.isBackViewInflated()) {
+                findBackViews(views, card.getBackViewContent());
+                views.backBound = true;
+            }
+        }
+
+        return views;
+    }
+
+    /**
+     * @return the item displayed by the card, null while loading or when unbound
+     */
+    public final T getBoundItem(SwipeToRevealLayout card) {
+        return getViews(card).item;
+    }
+
+    /**
+     * Displays an item, only the fields differing from the item displayed being bound
+     *
+     * @param card Self-explanatory
+     * @param item item to display, null while it is loading
+     */
+    public final void bind(SwipeToRevealLayout card, T item) {
+        final V views = getViews(card);
+        final T previous = views.item;
+        final int changes;
+
+        if (!views.bound) {
+            changes = CHANGED_ALL;
+        } else if (previous == item) {
+            changes = 0;
+        } else if (previous == null || item == null) {
+            changes = CHANGED_ALL;
+        } else {
+            changes = getChanges(previous, item);
+        }
+
+        views.bound = true;
+        views.item = item;
+
+        apply(views, changes);
+    }
+
+    /**
+     * Binds again some fields of the displayed item, typically after they have been cleared to
+     * free memory
+     *
+     * @param card    Self-explanatory
+     * @param changes fields to bind
+     */
+    public final void rebind(SwipeToRevealLayout card, int changes) {
+        final V views = getViews(card);
+
+        if (views.bound) apply(views, changes);
+    }
+
+    /**
+     * Forgets the displayed item and frees what it holds, the next bind binding every field.
+     * Nothing is done for a card never bound.
+     *
+     * @param card Self-explanatory
+     */
+    @SuppressWarnings("unchecked")
+    public final void unbind(SwipeToRevealLayout card) {
+        final V views = (V) card.getTag(R.id.strd_tag_card_views);
+
+        if (views == null || !views.bound) return;
+
+        onUnbind(views);
+        views.bound = false;
+        views.item = null;
+    }
+
+    private void apply(V views, int changes) {
+        if (changes == 0) return;
+
+        bindFront(views, views.item, changes);
+
+        if (views.backBound) bindBack(views, views.item, changes);
+    }
+
+    /**
+     * @see SwipeToRevealLayout.OnBackViewContentListener#onBackViewInflated(SwipeToRevealLayout, View)
+     */
+    @Override
+    public void onBackViewInflated(SwipeToRevealLayout layout, View content) {
+        final V views = getViews(layout);
+
+        findBackViews(views, content);
+        views.backBound = true;
+
+        if (views.bound) bindBack(views, views.item, CHANGED_ALL);
+    }
+
+    /**
+     * @see SwipeToRevealLayout.OnBackViewContentListener#onBackViewReleased(SwipeToRevealLayout)
+     */
+    @Override
+    public void onBackViewReleased(SwipeToRevealLayout layout) {
+        getViews(layout).backBound = false;
+    }
+
+    /**
+     * Looks up the front views of a card
+     *
+     * @param card Self-explanatory
+     * @return the views of the card
+     */
+    protected abstract V createViews(SwipeToRevealLayout card);
+
+    /**
+     * Looks up the back views of a card, each time its back view content is inflated. Nothing
+     * by default.
+     *
+     * @param views   views of the card
+     * @param content root of the back view content
+     */
+    protected void findBackViews(V views, View content) {
+    }
+
+    /**
+     * @param previous item displayed
+     * @param item     item to display
+     * @return flags of the fields differing between both items, 0 if none
+     */
+    protected abstract int getChanges(T previous, T item);
+
+    /**
+     * Binds the changed fields to the front views
+     *
+     * @param views   views of the card
+     * @param item    item to display, null while it is loading
+     * @param changes flags of the changed fields, {@link #CHANGED_ALL} for every field
+     */
+    protected abstract void bindFront(V views, T item, int changes);
+
+    /**
+     * Binds the changed fields to the back views, once they are inflated. Nothing by default.
+     *
+     * @param views   views of the card
+     * @param item    item to display, null while it is loading
+     * @param changes flags of the changed fields, {@link #CHANGED_ALL} for every field
+     */
+    protected void bindBack(V views, T item, int changes) {
+    }
+
+    /**
+     * Frees what the displayed item holds, such as pending loads. Nothing by default.
+     *
+     * @param views views of the card
+     */
+    protected void onUnbind(V views) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.dancing_koala.swipetorevealdetails.ui.adapters;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.widget.ImageView;
+
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.data.CarouselItem;
+import com.dancing_koala.swipetorevealdetails.ui.images.BitmapLoader;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfCounters;
+import com.dancing_koala.swipetorevealdetails.ui.text.TextLayoutPrecomputer;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+import com.dancing_koala.swipetorevealdetails.ui.views.TextLayoutView;
+
+/**
+ * Binds {@link CarouselItem}s to the front of the cards: the title, laid out in the background
+ * ahead of time, and the image, decoded in the background. The loaders are created with the
+ * first card, from its size.
+ */
+public class CarouselCardBinder extends CardBinder<CarouselItem, CarouselCardBinder.Views> {
+
+    public static final int
+            FIELD_TITLE = 1,
+            FIELD_IMAGE = 1 << 1;
+
+    /**
+     * Front views of a carousel card
+     */
+    public static class Views extends CardBinder.CardViews<CarouselItem> {
+
+        final TextLayoutView itemName;
+        final ImageView itemImage;
+
+        Views(SwipeToRevealLayout card) {
+            super(card);
+            itemName = (TextLayoutView) card.findViewById(R.id.tv_item_name);
+            PerfCounters.countViewLookup();
+
+            itemImage = (ImageView) card.findViewById(R.id.iv_item_image);
+            PerfCounters.countViewLookup();
+        }
+    }
+
+    private final Context context;
+
+    /**
+     * Created with the first card, down-sampling to the size of its front view
+     */
+    private BitmapLoader bitmapLoader;
+
+    /**
+     * Lays out the titles of the upcoming items, created with the first card
+     */
+    private TextLayoutPrecomputer titlePrecomputer;
+
+    /**
+     * @param context Context used to load the images
+     */
+    public CarouselCardBinder(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the image loader, null until the first card is bound
+     */
+    public BitmapLoader getBitmapLoader() {
+        return bitmapLoader;
+    }
+
+    /**
+     * @return the title layouts precomputer, null until the first card is bound
+     */
+    public TextLayoutPrecomputer getTitlePrecomputer() {
+        return titlePrecomputer;
+    }
+
+    /**
+     * Clears the image of a card to free memory, until {@link #rebind(SwipeToRevealLayout, int)}
+     * with {@link #FIELD_IMAGE}
+     *
+     * @param card Self-explanatory
+     */
+    public void clearImage(SwipeToRevealLayout card) {
+        if (bitmapLoader != null) bitmapLoader.cancel(getViews(card).itemImage);
+    }
+
+    /**
+     * Stops the background work, the binder cannot be used anymore
+     */
+    public void release() {
+        if (bitmapLoader != null) bitmapLoader.release();
+        if (titlePrecomputer != null) titlePrecomputer.release();
+    }
+
+    /**
+     * @see CardBinder#createViews(SwipeToRevealLayout)
+     */
+    @Override
+    protected Views createViews(SwipeToRevealLayout card) {
+        Views views = new Views(card);
+
+        if (bitmapLoader == null) {
+            bitmapLoader = new BitmapLoader(context.getResources(), card.getFrontViewWidth(), card.getFrontViewHeight());
+
+            // The title spans the whole width of the front view
+            TextLayoutView itemName = views.itemName;
+            int titleWidth = card.getFrontViewWidth() - itemName.getPaddingLeft() - itemName.getPaddingRight();
+            titlePrecomputer = new TextLayoutPrecomputer(itemName, titleWidth);
+        }
+
+        return views;
+    }
+
+    /**
+     * @see CardBinder#getChanges(Object, Object)
+     */
+    @Override
+    protected int getChanges(CarouselItem previous, CarouselItem item) {
+        int changes = 0;
+
+        if (!TextUtils.equals(previous.getTitle(), item.getTitle())) changes |= FIELD_TITLE;
+        if (previous.getImageResID() != item.getImageResID()) changes |= FIELD_IMAGE;
+
+        return changes;
+    }
+
+    /**
+     * @see CardBinder#bindFront(CardViews, Object, int)
+     */
+    @Override
+    protected void bindFront(Views views, CarouselItem item, int changes) {
+        if ((changes & FIELD_TITLE) != 0) {
+            if (item != null) {
+                titlePrecomputer.bind(views.itemName, item.getId(), item.getTitle());
+            } else {
+                views.itemName.setText(null);
+            }
+        }
+
+        if ((changes & FIELD_IMAGE) != 0) {
+            if (item != null && item.getImageResID() != 0) {
+                bitmapLoader.load(views.itemImage, item.getImageResID());
+            } else {
+                bitmapLoader.cancel(views.itemImage);
+            }
+        }
+    }
+
+    /**
+     * @see CardBinder#onUnbind(CardViews)
+     */
+    @Override
+    protected void onUnbind(Views views) {
+        if (bitmapLoader != null) bitmapLoader.cancel(views.itemImage);
+    }
+}
@@ -1,39 +1,489 @@
 package com.dancing_koala.swipetorevealdetails.ui.adapters;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ImageView;
-import android.widget.TextView;
+import android.view.ViewTreeObserver;
 
 import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.data.CarouselDataSource;
+import com.dancing_koala.swipetorevealdetails.data.CarouselItem;
+import com.dancing_koala.swipetorevealdetails.data.DummyCarouselDataSource;
+import com.dancing_koala.swipetorevealdetails.data.ItemDiff;
+import com.dancing_koala.swipetorevealdetails.data.PagedItemLoader;
+import com.dancing_koala.swipetorevealdetails.ui.images.BitmapLoader;
+import com.dancing_koala.swipetorevealdetails.ui.listeners.AdaptiveOffscreenPageListener;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.StartupMarkers;
+import com.dancing_koala.swipetorevealdetails.ui.pools.ItemViewPool;
+import com.dancing_koala.swipetorevealdetails.ui.text.TextLayoutPrecomputer;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
 
-public class CarouselPagerAdapter extends PagerAdapter {
+import java.util.ArrayList;
+import java.util.List;
 
-    private Context context;
+public class CarouselPagerAdapter extends PagerAdapter
+        implements AdaptiveOffscreenPageListener.PrefetchListener, PagedItemLoader.Callback,
+        ItemViewPool.OnScrapListener {
+
+    /**
+     * Count of items on each side of an instantiated page whose titles are laid out ahead
+     */
+    private static final int TITLE_PRECOMPUTE_DISTANCE = 2;
+
+    /**
+     * Stands for a page not instantiated yet while staging
+     */
+    private static final class PendingPage {
+
+        final int position;
+
+        /**
+         * Whether the page became the current one before the first draw
+         */
+        boolean primary;
+
+        PendingPage(int position) {
+            this.position = position;
+        }
+    }
+
+    private ItemViewPool itemViewPool;
+
+    /**
+     * Loads the items around the displayed positions
+     */
+    private PagedItemLoader itemLoader;
+
+    /**
+     * Pages currently instantiated, updated in place when their item changes
+     */
+    private List<View> liveItems;
+
+    /**
+     * Binds the items to the pages, only touching the fields that changed
+     */
+    private CarouselCardBinder cardBinder;
+
+    /**
+     * Whether offscreen pages lost their image to a memory trim
+     */
+    private boolean imagesTrimmed;
+
+    /**
+     * Whether the pages are still bound in stages, see {@link #setStagedStartup(StartupMarkers)}
+     */
+    private boolean staging;
+    private boolean firstPageDrawn;
+
+    /**
+     * Whether {@link #release()} was called, the posted stages doing nothing then
+     */
+    private boolean released;
+
+    /**
+     * Listener waiting for the first page to be drawn, and the page it was added from
+     */
+    private ViewTreeObserver.OnDrawListener firstDrawListener;
+    private View firstDrawView;
+
+    /**
+     * Reports the startup stages while staging, may be null
+     */
+    private StartupMarkers startupMarkers;
+
+    /**
+     * Pages instantiated while staging, hidden until bound
+     */
+    private List<View> stagedItems;
+
+    /**
+     * Placeholders given to the pager for the pages other than the current one until the first
+     * card is drawn, so that no other card is inflated nor acquired before
+     */
+    private List<PendingPage> pendingPages;
+
+    /**
+     * Binds one staged page each time the main thread gets idle, which leaves a frame in between
+     * as each bound page requests a layout
+     */
+    private final MessageQueue.IdleHandler stagedBindHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (released) return false;
+
+            // The pager drops the placeholders and instantiates the actual pages, staged in turn
+            if (!pendingPages.isEmpty()) {
+                notifyDataSetChanged();
+                return true;
+            }
+
+            if (!stagedItems.isEmpty()) bindPage(stagedItems.remove(0));
+
+            if (!stagedItems.isEmpty()) return true;
+
+            staging = false;
+            if (startupMarkers != null) startupMarkers.mark(StartupMarkers.MARKER_NEIGHBORS_READY);
+            return false;
+        }
+    };
 
     public CarouselPagerAdapter(Context context) {
-        this.context = context;
+        this(context, new ItemViewPool(context));
+    }
+
+    public CarouselPagerAdapter(Context context, ItemViewPool itemViewPool) {
+        this(context, itemViewPool, new DummyCarouselDataSource(context));
+    }
+
+    public CarouselPagerAdapter(Context context, ItemViewPool itemViewPool, CarouselDataSource dataSource) {
+        this.itemViewPool = itemViewPool;
+        itemViewPool.setOnScrapListener(this);
+        liveItems = new ArrayList<>();
+        cardBinder = new CarouselCardBinder(context);
+
+        // The count is 0 until the first load publishes it
+        itemLoader = new PagedItemLoader(dataSource);
+        itemLoader.setCallback(this);
+        itemLoader.reload();
+    }
+
+    /**
+     * Reloads the data source, only the pages whose item changed being updated
+     */
+    public void reload() {
+        itemLoader.reload();
+    }
+
+    /**
+     * Stops loading the items and the staged startup, the adapter cannot be used anymore
+     */
+    public void release() {
+        released = true;
+        staging = false;
+
+        itemLoader.release();
+        itemViewPool.setOnScrapListener(null);
+        cardBinder.release();
+
+        Looper.myQueue().removeIdleHandler(stagedBindHandler);
+        removeFirstDrawListener();
+    }
+
+    /**
+     * Starts in stages: only the current page is instantiated, then bound and shown alone for
+     * the first frame, the other ones being placeholders. Once it has been drawn, the other pages
+     * are instantiated hidden on an idle main thread loop, which leaves time to the pool to
+     * inflate them in the background, then bound one per idle loop, a page becoming the current
+     * one in the meantime being bound right away. Must be called before the adapter is set to
+     * the pager.
+     *
+     * @param startupMarkers receiver of the first card drawn and neighbors ready markers, may be null
+     */
+    public void setStagedStartup(StartupMarkers startupMarkers) {
+        this.startupMarkers = startupMarkers;
+        staging = true;
+        stagedItems = new ArrayList<>();
+        pendingPages = new ArrayList<>();
     }
 
     @Override
     public Object instantiateItem(ViewGroup container, int position) {
-        View item = View.inflate(context, R.layout.strd_item, null);
+        if (staging && !firstPageDrawn && position != ((ViewPager) container).getCurrentItem()) {
+            PendingPage pendingPage = new PendingPage(position);
+            pendingPages.add(pendingPage);
+            return pendingPage;
+        }
+
+        View item = itemViewPool.acquire(R.layout.strd_item);
 
-        TextView itemName = (TextView) item.findViewById(R.id.tv_item_name);
-        itemName.setText(itemName.getText() + " " + position);
+        itemLoader.prefetchAround(position);
+        item.setTag(R.id.strd_tag_item_position, position);
+        liveItems.add(item);
 
-        int imgResID = context.getResources().getIdentifier("landscape_" + position, "drawable", context.getPackageName());
-        ((ImageView) item.findViewById(R.id.iv_item_image)).setImageResource(imgResID);
+        if (staging) {
+            // Neither measured nor drawn until bound
+            item.setVisibility(View.GONE);
+            stagedItems.add(item);
+        } else {
+            bindPage(item);
+        }
 
         container.addView(item);
         return item;
     }
 
+    /**
+     * Binds a page to the item at its position and shows it
+     *
+     * @param item page view
+     */
+    private void bindPage(View item) {
+        final int position = (Integer) item.getTag(R.id.strd_tag_item_position);
+
+        // A recycled page only gets the fields differing from its previous item
+        cardBinder.bind((SwipeToRevealLayout) item, itemLoader.getItem(position));
+        item.setVisibility(View.VISIBLE);
+        precomputeTitles(position - TITLE_PRECOMPUTE_DISTANCE, 2 * TITLE_PRECOMPUTE_DISTANCE + 1);
+    }
+
+    /**
+     * Binds the current page right away while staging, the first one starting the next stage
+     * once drawn
+     *
+     * @see PagerAdapter#setPrimaryItem(ViewGroup, int, Object)
+     */
+    @Override
+    public void setPrimaryItem(ViewGroup container, int position, Object object) {
+        super.setPrimaryItem(container, position, object);
+
+        if (!staging) return;
+
+        // Moved to before the first draw, the placeholder is replaced by the actual page
+        if (object instanceof PendingPage) {
+            final PendingPage pendingPage = (PendingPage) object;
+
+            if (pendingPage.primary) return;
+
+            pendingPage.primary = true;
+            container.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!released && pendingPages.contains(pendingPage)) notifyDataSetChanged();
+                }
+            });
+            return;
+        }
+
+        if (!stagedItems.remove(object)) return;
+
+        View item = (View) object;
+        bindPage(item);
+
+        if (!firstPageDrawn) watchFirstDraw(item);
+    }
+
+    /**
+     * Binds the other pages once the first frame showing the page has been drawn
+     *
+     * @param item first page shown
+     */
+    private void watchFirstDraw(final View item) {
+        firstDrawView = item;
+        firstDrawListener = new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                if (firstPageDrawn) return;
+
+                firstPageDrawn = true;
+
+                // Listeners cannot be removed while being dispatched, and the frame is only
+                // over once the traversal has returned
+                item.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        removeFirstDrawListener();
+
+                        if (released || !staging) return;
+
+                        if (startupMarkers != null) startupMarkers.mark(StartupMarkers.MARKER_FIRST_CARD_DRAWN);
+                        Looper.myQueue().addIdleHandler(stagedBindHandler);
+                    }
+                });
+            }
+        };
+        item.getViewTreeObserver().addOnDrawListener(firstDrawListener);
+    }
+
+    /**
+     * Stops waiting for the first draw, from the page's observer if it is still alive
+     */
+    private void removeFirstDrawListener() {
+        if (firstDrawListener == null) return;
+
+        ViewTreeObserver observer = firstDrawView.getViewTreeObserver();
+
+        if (observer.isAlive()) observer.removeOnDrawListener(firstDrawListener);
+
+        firstDrawListener = null;
+        firstDrawView = null;
+    }
+
+    /**
+     * Frees memory depending on the trim level. Running low on memory, the collapsed offscreen
+     * cards drop their back view content, and the caches are emptied once critical. With the UI
+     * hidden, the offscreen pages drop their image until {@link #restoreTrimmedImages()}. In the
+     * background, all of it is done.
+     *
+     * @param level           trim level given to {@link ComponentCallbacks2#onTrimMemory(int)}
+     * @param currentPosition position of the page on screen, left untouched
+     */
+    public void trimMemory(int level, int currentPosition) {
+        // The running and background levels are not ordered with UI_HIDDEN, each one is matched
+        final boolean background = level == ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+        final boolean critical = background || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+        final boolean low = critical || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+        final boolean hidden = background || level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+
+        if (!low && !hidden) return;
+
+        for (int i = 0; i < liveItems.size(); i++) {
+            View item = liveItems.get(i);
+
+            if ((Integer) item.getTag(R.id.strd_tag_item_position) == currentPosition) continue;
+
+            if (low) ((SwipeToRevealLayout) item).releaseBackView();
+
+            if (hidden) {
+                cardBinder.clearImage((SwipeToRevealLayout) item);
+                imagesTrimmed = true;
+            }
+        }
+
+        if (critical) {
+            BitmapLoader bitmapLoader = cardBinder.getBitmapLoader();
+            TextLayoutPrecomputer titlePrecomputer = cardBinder.getTitlePrecomputer();
+
+            // Only the bitmaps no page displays anymore are dropped
+            if (bitmapLoader != null) bitmapLoader.clear();
+            if (titlePrecomputer != null) titlePrecomputer.clear();
+        }
+    }
+
+    /**
+     * Loads again the images the offscreen pages dropped to a memory trim, typically when the
+     * UI is shown again
+     */
+    public void restoreTrimmedImages() {
+        if (!imagesTrimmed) return;
+
+        imagesTrimmed = false;
+
+        for (int i = 0; i < liveItems.size(); i++) {
+            cardBinder.rebind((SwipeToRevealLayout) liveItems.get(i), CarouselCardBinder.FIELD_IMAGE);
+        }
+    }
+
+    /**
+     * Binds the current item of each live page that changed, only the changed fields being
+     * updated. Pages whose item moved are left to {@link #getItemPosition(Object)}.
+     */
+    private void rebindChangedItems() {
+        for (int i = 0; i < liveItems.size(); i++) {
+            SwipeToRevealLayout item = (SwipeToRevealLayout) liveItems.get(i);
+            CarouselItem bound = cardBinder.getBoundItem(item);
+            CarouselItem current = itemLoader.getItem((Integer) item.getTag(R.id.strd_tag_item_position));
+
+            if (current == null || current == bound) continue;
+
+            // Staged pages get their item once bound
+            if (staging && stagedItems.contains(item)) continue;
+
+            if (bound == null || bound.getId() == current.getId()) cardBinder.bind(item, current);
+        }
+    }
+
+    /**
+     * Fills the live pages which were waiting for the loaded items
+     *
+     * @see PagedItemLoader.Callback#onItemsLoaded(int, int)
+     */
+    @Override
+    public void onItemsLoaded(int start, int count) {
+        rebindChangedItems();
+        precomputeTitles(start, count);
+    }
+
+    /**
+     * Lays out the titles of the loaded items of a range in the background
+     *
+     * @param start position of the first item
+     * @param count count of items
+     */
+    private void precomputeTitles(int start, int count) {
+        TextLayoutPrecomputer titlePrecomputer = cardBinder.getTitlePrecomputer();
+
+        if (titlePrecomputer == null) return;
+
+        for (int position = Math.max(start, 0); position < start + count; position++) {
+            CarouselItem data = itemLoader.getItem(position);
+
+            if (data != null) titlePrecomputer.precompute(data.getId(), data.getTitle());
+        }
+    }
+
+    /**
+     * Only notifies the pager when items were inserted, removed or moved, the pages whose content
+     * changed in place being bound again as they are
+     *
+     * @see PagedItemLoader.Callback#onItemsChanged(ItemDiff)
+     */
+    @Override
+    public void onItemsChanged(ItemDiff diff) {
+        if (diff.isStructureChanged()) notifyDataSetChanged();
+
+        rebindChangedItems();
+    }
+
+    /**
+     * Keeps the pages whose item did not move, so that a change does not re-create every page
+     *
+     * @see PagerAdapter#getItemPosition(Object)
+     */
+    @Override
+    public int getItemPosition(Object object) {
+        if (object instanceof PendingPage) {
+            PendingPage pendingPage = (PendingPage) object;
+            boolean keep = !firstPageDrawn && !pendingPage.primary && pendingPage.position < getCount();
+
+            return keep ? POSITION_UNCHANGED : POSITION_NONE;
+        }
+
+        View item = (View) object;
+        CarouselItem bound = cardBinder.getBoundItem((SwipeToRevealLayout) item);
+        int position = (Integer) item.getTag(R.id.strd_tag_item_position);
+
+        if (bound == null) return position < getCount() ? POSITION_UNCHANGED : POSITION_NONE;
+
+        int newPosition = itemLoader.findPosition(bound.getId(), position);
+
+        if (newPosition < 0) return POSITION_NONE;
+        if (newPosition == position) return POSITION_UNCHANGED;
+
+        item.setTag(R.id.strd_tag_item_position, newPosition);
+        return newPosition;
+    }
+
+    /**
+     * Decodes the image of a page ahead of its instantiation
+     *
+     * @see AdaptiveOffscreenPageListener.PrefetchListener#onPrefetch(int)
+     */
+    @Override
+    public void onPrefetch(int position) {
+        if (position < 0 || position >= getCount()) return;
+
+        itemLoader.prefetchAround(position);
+        precomputeTitles(position, 1);
+
+        CarouselItem data = itemLoader.getItem(position);
+        BitmapLoader bitmapLoader = cardBinder.getBitmapLoader();
+
+        // Nothing is known about the cards size before the first bind
+        if (bitmapLoader != null && data != null && data.getImageResID() != 0) {
+            bitmapLoader.prefetch(data.getImageResID());
+        }
+    }
+
     @Override
     public int getCount() {
-        return 4;
+        return itemLoader.getCount();
     }
 
     @Override
@@ -43,6 +493,38 @@ public class CarouselPagerAdapter extends PagerAdapter {
 
     @Override
     public void destroyItem(ViewGroup container, int position, Object object) {
-        container.removeView((View) object);
+        if (object instanceof PendingPage) {
+            pendingPages.remove(object);
+            return;
+        }
+
+        View item = (View) object;
+        container.removeView(item);
+        liveItems.remove(item);
+
+        if (staging) stagedItems.remove(item);
+        itemViewPool.release(item);
+    }
+
+    /**
+     * Unbinds a page the pool let go of, so that the loader no longer counts its image as
+     * displayed and can reuse it
+     *
+     * @see ItemViewPool.OnScrapListener#onScrapDropped(View)
+     */
+    @Override
+    public void onScrapDropped(View view) {
+        if (view instanceof SwipeToRevealLayout) cardBinder.unbind((SwipeToRevealLayout) view);
+    }
+
+    /**
+     * Unbinds a pooled page as well, which frees its image the way the offscreen pages do, the
+     * next bind binding the whole item again
+     *
+     * @see ItemViewPool.OnScrapListener#onScrapTrimmed(View)
+     */
+    @Override
+    public void onScrapTrimmed(View view) {
+        onScrapDropped(view);
     }
 }
@@ -0,0 +1,187 @@
+package com.dancing_koala.swipetorevealdetails.ui.adapters;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.data.CarouselDataSource;
+import com.dancing_koala.swipetorevealdetails.data.CarouselItem;
+import com.dancing_koala.swipetorevealdetails.data.ItemDiff;
+import com.dancing_koala.swipetorevealdetails.data.PagedItemLoader;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+
+import java.util.List;
+
+/**
+ * Displays the items of a {@link CarouselDataSource} as a vertical feed of swipe to reveal cards.
+ * The reveal state of each card is kept by item ID in a {@link RevealStateStore} and restored
+ * without animation when a view is bound, so that the cards survive recycling. Cards only take
+ * the vertical gesture over from the list once the touch has been held still for a moment.
+ * Changed items are notified with a payload so that their card is bound again in place, only
+ * the changed fields being updated.
+ */
+public class RevealCardFeedAdapter extends RecyclerView.Adapter<RevealCardFeedAdapter.CardViewHolder>
+        implements PagedItemLoader.Callback, SwipeToRevealLayout.OnRevealChangeListener {
+
+    /**
+     * Payload of the change notifications, telling the item animator to keep the card
+     */
+    private static final Object PAYLOAD_CONTENT = new Object();
+
+    private final Context context;
+    private final PagedItemLoader itemLoader;
+    private final RevealStateStore revealStates;
+    private final CarouselCardBinder cardBinder;
+
+    /**
+     * @param context    Context used to inflate the cards
+     * @param dataSource source of the items
+     */
+    public RevealCardFeedAdapter(Context context, CarouselDataSource dataSource) {
+        this.context = context;
+        revealStates = new RevealStateStore();
+        cardBinder = new CarouselCardBinder(context);
+
+        itemLoader = new PagedItemLoader(dataSource);
+        itemLoader.setCallback(this);
+        itemLoader.reload();
+    }
+
+    /**
+     * Reloads the data source, only the changed cards being bound again
+     */
+    public void reload() {
+        itemLoader.reload();
+    }
+
+    /**
+     * Stops loading the items, the adapter cannot be used anymore
+     */
+    public void release() {
+        itemLoader.release();
+        cardBinder.release();
+    }
+
+    /**
+     * @see RevealStateStore#saveState(Bundle)
+     */
+    public void saveState(Bundle outState) {
+        revealStates.saveState(outState);
+    }
+
+    /**
+     * @see RevealStateStore#restoreState(Bundle)
+     */
+    public void restoreState(Bundle savedState) {
+        revealStates.restoreState(savedState);
+    }
+
+    @Override
+    public CardViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        SwipeToRevealLayout card = (SwipeToRevealLayout) LayoutInflater.from(context).inflate(R.layout.strd_item, parent, false);
+
+        card.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        card.setRevealHoldTime(ViewConfiguration.getTapTimeout());
+        card.setOnRevealChangeListener(this);
+
+        // Looking the views up once, with the card
+        cardBinder.getViews(card);
+
+        return new CardViewHolder(card);
+    }
+
+    @Override
+    public void onBindViewHolder(CardViewHolder holder, int position) {
+        itemLoader.prefetchAround(position);
+
+        CarouselItem item = itemLoader.getItem(position);
+
+        cardBinder.bind(holder.card, item);
+
+        // Restored without animation, whatever state the recycled view was left in
+        holder.card.setRevealed(item != null && revealStates.isRevealed(item.getId()));
+    }
+
+    /**
+     * A card notified with a payload still shows the same item, or its placeholder, and keeps
+     * its reveal state
+     *
+     * @see RecyclerView.Adapter#onBindViewHolder(RecyclerView.ViewHolder, int, List)
+     */
+    @Override
+    public void onBindViewHolder(CardViewHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        CarouselItem bound = cardBinder.getBoundItem(holder.card);
+        CarouselItem item = itemLoader.getItem(position);
+
+        cardBinder.bind(holder.card, item);
+
+        // The placeholder only knows the reveal state once its item is loaded
+        if (bound == null && item != null) holder.card.setRevealed(revealStates.isRevealed(item.getId()));
+    }
+
+    @Override
+    public void onViewRecycled(CardViewHolder holder) {
+        holder.card.resetSwipeState();
+        cardBinder.unbind(holder.card);
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemLoader.getCount();
+    }
+
+    /**
+     * @see SwipeToRevealLayout.OnRevealChangeListener#onRevealChanged(SwipeToRevealLayout, boolean)
+     */
+    @Override
+    public void onRevealChanged(SwipeToRevealLayout layout, boolean revealed) {
+        CarouselItem item = cardBinder.getBoundItem(layout);
+
+        if (item != null) revealStates.setRevealed(item.getId(), revealed);
+    }
+
+    /**
+     * @see PagedItemLoader.Callback#onItemsLoaded(int, int)
+     */
+    @Override
+    public void onItemsLoaded(int start, int count) {
+        notifyItemRangeChanged(start, count, PAYLOAD_CONTENT);
+    }
+
+    /**
+     * @see PagedItemLoader.Callback#onItemsChanged(ItemDiff)
+     */
+    @Override
+    public void onItemsChanged(ItemDiff diff) {
+        if (diff.isStructureChanged()) {
+            notifyDataSetChanged();
+            return;
+        }
+
+        for (int position : diff.getChangedPositions()) {
+            notifyItemChanged(position, PAYLOAD_CONTENT);
+        }
+    }
+
+    /**
+     * Holds a card, its views and bound item being kept by the {@link CarouselCardBinder}
+     */
+    public static class CardViewHolder extends RecyclerView.ViewHolder {
+
+        final SwipeToRevealLayout card;
+
+        CardViewHolder(SwipeToRevealLayout card) {
+            super(card);
+            this.card = card;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dancing_koala.swipetorevealdetails.ui.adapters;
+
+import android.os.Bundle;
+
+import java.util.Arrays;
+
+/**
+ * Reveal state of the cards of a list, kept outside of the recycled views. Only the IDs of the
+ * revealed cards are stored, sorted in a single array, the others being collapsed.
+ */
+public class RevealStateStore {
+
+    private static final String KEY_REVEALED_IDS = "strd_revealed_ids";
+
+    private long[] revealedIDs;
+    private int size;
+
+    public RevealStateStore() {
+        revealedIDs = new long[8];
+    }
+
+    /**
+     * @param id stable ID of the card
+     * @return true if the card is revealed
+     */
+    public boolean isRevealed(long id) {
+        return Arrays.binarySearch(revealedIDs, 0, size, id) >= 0;
+    }
+
+    /**
+     * @param id       stable ID of the card
+     * @param revealed Self-explanatory
+     */
+    public void setRevealed(long id, boolean revealed) {
+        final int index = Arrays.binarySearch(revealedIDs, 0, size, id);
+
+        if (revealed && index < 0) {
+            final int insertAt = -index - 1;
+
+            if (size == revealedIDs.length) revealedIDs = Arrays.copyOf(revealedIDs, size * 2);
+
+            System.arraycopy(revealedIDs, insertAt, revealedIDs, insertAt + 1, size - insertAt);
+            revealedIDs[insertAt] = id;
+            size++;
+        } else if (!revealed && index >= 0) {
+            System.arraycopy(revealedIDs, index + 1, revealedIDs, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Collapses every card
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param outState Bundle to save the state into
+     */
+    public void saveState(Bundle outState) {
+        outState.putLongArray(KEY_REVEALED_IDS, Arrays.copyOf(revealedIDs, size));
+    }
+
+    /**
+     * @param savedState Bundle the state was saved into, may be null
+     */
+    public void restoreState(Bundle savedState) {
+        long[] saved = savedState != null ? savedState.getLongArray(KEY_REVEALED_IDS) : null;
+
+        if (saved == null) return;
+
+        revealedIDs = Arrays.copyOf(saved, Math.max(saved.length, 8));
+        size = saved.length;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dancing_koala.swipetorevealdetails.ui.animations;
+
+import android.view.Choreographer;
+
+/**
+ * {@link FrameClock} paced by the display vsync. Must be created on the main thread.
+ */
+public class ChoreographerFrameClock implements FrameClock {
+
+    private final Choreographer choreographer;
+
+    public ChoreographerFrameClock() {
+        choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * @see FrameClock#postFrameCallback(Choreographer.FrameCallback)
+     */
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+        choreographer.postFrameCallback(callback);
+    }
+
+    /**
+     * @see FrameClock#removeFrameCallback(Choreographer.FrameCallback)
+     */
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        choreographer.removeFrameCallback(callback);
+    }
+}
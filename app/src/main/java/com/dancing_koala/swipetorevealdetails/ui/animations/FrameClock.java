@@ -0,0 +1,24 @@
+package com.dancing_koala.swipetorevealdetails.ui.animations;
+
+import android.view.Choreographer;
+
+/**
+ * Source of the frames the drag and settle animations are paced with. The app uses the
+ * {@link Choreographer}, replays use a virtual clock advanced by hand.
+ */
+public interface FrameClock {
+
+    /**
+     * Runs the callback once, on the next frame
+     *
+     * @param callback Self-explanatory
+     */
+    void postFrameCallback(Choreographer.FrameCallback callback);
+
+    /**
+     * Removes a callback posted and not run yet
+     *
+     * @param callback Self-explanatory
+     */
+    void removeFrameCallback(Choreographer.FrameCallback callback);
+}
@@ -0,0 +1,144 @@
+package com.dancing_koala.swipetorevealdetails.ui.animations;
+
+import android.animation.TimeInterpolator;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.DecelerateInterpolator;
+
+/**
+ * Settles the front and back views with {@link ViewPropertyAnimator}s instead of stepping a spring
+ * on the main thread. Neither animator has a listener, which lets the platform run them on the
+ * render thread from Lollipop, so that main-thread work done at release time does not make the
+ * settle stutter. Both are started in the same frame with the same duration and interpolator, so
+ * that the views stay in sync.
+ * The end is reported by a callback posted on the animation timeline at the shared duration, an
+ * interruption by {@link #cancel()}, which reads back where the views stopped. Either way, the
+ * {@link SpringSettleAnimator.Listener} gets one {@link SpringSettleAnimator.Listener#onSettleUpdate(float)}
+ * followed by {@link SpringSettleAnimator.Listener#onSettleEnd(float, boolean)}.
+ * Must be used on the main thread.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class RenderThreadSettleAnimator {
+
+    private static final TimeInterpolator INTERPOLATOR = new DecelerateInterpolator();
+
+    private final SpringSettleAnimator.Listener listener;
+
+    private boolean running;
+    private float originY;
+    private float target;
+    private View frontView;
+    private View backView;
+
+    /**
+     * Reports the end once the shared duration has elapsed on the animation timeline
+     */
+    private final Runnable endRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+
+            running = false;
+            stopAnimations();
+            dispatchEnd(target, false);
+        }
+    };
+
+    /**
+     * @param listener receiver of the settled value
+     */
+    public RenderThreadSettleAnimator(SpringSettleAnimator.Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return true on the platform versions running view property animations on the render thread
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    /**
+     * Starts moving the views to the target, replacing any running animation without reporting it
+     *
+     * @param frontView  Self-explanatory
+     * @param backView   Self-explanatory
+     * @param originY    Y of the front view when collapsed
+     * @param to         reveal offset to settle on
+     * @param backScaleX back view horizontal scale for the target
+     * @param backScaleY back view vertical scale for the target
+     * @param backAlpha  back view alpha for the target
+     * @param duration   Self-explanatory, in milliseconds
+     */
+    public void start(View frontView, View backView, float originY, float to,
+                      float backScaleX, float backScaleY, float backAlpha, long duration) {
+        if (running) {
+            running = false;
+            stopAnimations();
+        }
+
+        this.frontView = frontView;
+        this.backView = backView;
+        this.originY = originY;
+        target = to;
+        running = true;
+
+        // Both animators start on the next animation frame, sharing their timing
+        frontView.animate()
+                .setListener(null)
+                .setUpdateListener(null)
+                .setStartDelay(0)
+                .setDuration(duration)
+                .setInterpolator(INTERPOLATOR)
+                .y(originY - to);
+
+        backView.animate()
+                .setListener(null)
+                .setUpdateListener(null)
+                .setStartDelay(0)
+                .setDuration(duration)
+                .setInterpolator(INTERPOLATOR)
+                .scaleX(backScaleX)
+                .scaleY(backScaleY)
+                .alpha(backAlpha);
+
+        frontView.postOnAnimationDelayed(endRunnable, duration);
+    }
+
+    /**
+     * Stops the views where they are and reports the reveal offset reached, read back from the
+     * front view's current position
+     */
+    public void cancel() {
+        if (!running) return;
+
+        running = false;
+        stopAnimations();
+        dispatchEnd(originY - frontView.getY(), true);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getTarget() {
+        return target;
+    }
+
+    /**
+     * Cancels both animators, the views keeping the properties they reached, and the end callback
+     */
+    private void stopAnimations() {
+        frontView.removeCallbacks(endRunnable);
+        frontView.animate().cancel();
+        backView.animate().cancel();
+    }
+
+    private void dispatchEnd(float value, boolean canceled) {
+        // Brings the back view in line with the front one, and the listener's state with both
+        listener.onSettleUpdate(value);
+        listener.onSettleEnd(value, canceled);
+    }
+}
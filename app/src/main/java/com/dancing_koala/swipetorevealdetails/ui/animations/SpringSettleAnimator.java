@@ -0,0 +1,145 @@
+package com.dancing_koala.swipetorevealdetails.ui.animations;
+
+import android.view.Choreographer;
+
+import com.dancing_koala.swipetorevealdetails.core.SpringSimulation;
+
+/**
+ * Drives a single value toward a target with a {@link SpringSimulation}, stepped once per vsync frame
+ * through a {@link FrameClock}, the {@link Choreographer} by default. Nothing is allocated while
+ * animating. Must be created and used on the main thread.
+ */
+public class SpringSettleAnimator implements Choreographer.FrameCallback {
+
+    /**
+     * Receives the animated value
+     */
+    public interface Listener {
+        /**
+         * Called at most once per frame with the new value
+         *
+         * @param value current value
+         */
+        void onSettleUpdate(float value);
+
+        /**
+         * Called once the value rests on the target or the animation has been canceled
+         *
+         * @param value    last value
+         * @param canceled true when stopped by {@link #cancel()}
+         */
+        void onSettleEnd(float value, boolean canceled);
+    }
+
+    private final FrameClock frameClock;
+    private final Listener listener;
+    private final SpringSimulation spring;
+
+    private boolean running;
+    private long lastFrameTimeNanos;
+
+    /**
+     * @param listener receiver of the animated value
+     */
+    public SpringSettleAnimator(Listener listener) {
+        this(listener, new ChoreographerFrameClock());
+    }
+
+    /**
+     * @param listener   receiver of the animated value
+     * @param frameClock source of the frames
+     */
+    public SpringSettleAnimator(Listener listener, FrameClock frameClock) {
+        this(listener, SpringSimulation.DEFAULT_STIFFNESS, SpringSimulation.DEFAULT_DAMPING_RATIO, frameClock);
+    }
+
+    /**
+     * @param listener     receiver of the animated value
+     * @param stiffness    spring stiffness
+     * @param dampingRatio 1 for a critically damped spring, lower values make it bounce
+     */
+    public SpringSettleAnimator(Listener listener, float stiffness, float dampingRatio) {
+        this(listener, stiffness, dampingRatio, new ChoreographerFrameClock());
+    }
+
+    /**
+     * @param listener     receiver of the animated value
+     * @param stiffness    spring stiffness
+     * @param dampingRatio 1 for a critically damped spring, lower values make it bounce
+     * @param frameClock   source of the frames
+     */
+    public SpringSettleAnimator(Listener listener, float stiffness, float dampingRatio, FrameClock frameClock) {
+        this.listener = listener;
+        this.frameClock = frameClock;
+        spring = new SpringSimulation(stiffness, dampingRatio);
+    }
+
+    /**
+     * Starts moving the value toward the target, restarting any running animation
+     *
+     * @param from     start value
+     * @param to       target value
+     * @param velocity start velocity, in value units per second
+     */
+    public void start(float from, float to, float velocity) {
+        spring.reset(from, to, velocity);
+        lastFrameTimeNanos = 0;
+
+        if (!running) {
+            running = true;
+            frameClock.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stops the animation where it is
+     */
+    public void cancel() {
+        if (!running) return;
+
+        running = false;
+        frameClock.removeFrameCallback(this);
+        listener.onSettleEnd(spring.getValue(), true);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getValue() {
+        return spring.getValue();
+    }
+
+    public float getTarget() {
+        return spring.getTarget();
+    }
+
+    /**
+     * @see Choreographer.FrameCallback#doFrame(long)
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        if (lastFrameTimeNanos == 0) {
+            // First frame, nothing elapsed yet
+            lastFrameTimeNanos = frameTimeNanos;
+            listener.onSettleUpdate(spring.getValue());
+            frameClock.postFrameCallback(this);
+            return;
+        }
+
+        final boolean atRest = spring.step((frameTimeNanos - lastFrameTimeNanos) / 1e9f);
+        lastFrameTimeNanos = frameTimeNanos;
+
+        listener.onSettleUpdate(spring.getValue());
+
+        if (atRest) {
+            running = false;
+            listener.onSettleEnd(spring.getValue(), false);
+            return;
+        }
+
+        frameClock.postFrameCallback(this);
+    }
+}
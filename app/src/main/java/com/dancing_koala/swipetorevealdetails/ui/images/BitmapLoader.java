@@ -0,0 +1,379 @@
+package com.dancing_koala.swipetorevealdetails.ui.images;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.util.LruCache;
+import android.util.SparseBooleanArray;
+import android.widget.ImageView;
+
+import com.dancing_koala.swipetorevealdetails.R;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads drawable resources into image views, decoding them in the background down-sampled to a
+ * target size. Decoded bitmaps are kept in a memory-bounded LRU cache and the evicted ones are
+ * reused through {@link BitmapFactory.Options#inBitmap} once no view displays them anymore.
+ * The cache is only touched from the main thread, so that a decoded bitmap is displayed before
+ * anything can evict it, and handed to another decode.
+ * Every public method must be called from the main thread.
+ */
+public class BitmapLoader {
+
+    private static final int DECODE_THREAD_COUNT = 2;
+
+    /**
+     * Part of the app's maximum heap given to the memory cache
+     */
+    private static final int CACHE_HEAP_DIVIDER = 8;
+
+    /**
+     * Part of the app's maximum heap the reusable bitmaps can hold on to
+     */
+    private static final int REUSABLE_HEAP_DIVIDER = 32;
+
+    private final Resources resources;
+    private final int reqWidth;
+    private final int reqHeight;
+    private final Handler mainHandler;
+    private final ExecutorService decodeExecutor;
+
+    /**
+     * Decoded bitmaps, keyed by drawable resource ID, sized in kilobytes. Only touched from the
+     * main thread.
+     */
+    private final LruCache<Integer, Bitmap> memoryCache;
+
+    /**
+     * Bitmaps evicted from the cache, candidates for inBitmap, the oldest first. Guarded by itself.
+     */
+    private final List<Bitmap> reusableBitmaps;
+
+    /**
+     * Size of the reusable bitmaps and its maximum, in bytes. Guarded by reusableBitmaps.
+     */
+    private final long maxReusableBytes;
+    private long reusableBytes;
+
+    /**
+     * Count of image views displaying each bitmap. Guarded by reusableBitmaps.
+     */
+    private final IdentityHashMap<Bitmap, Integer> displayCounts;
+
+    /**
+     * Drawable resource IDs being prefetched, only touched from the main thread
+     */
+    private final SparseBooleanArray prefetching;
+
+    /**
+     * Set once released, the decodes still running then being dropped. Only touched from the
+     * main thread.
+     */
+    private boolean released;
+
+    /**
+     * @param resources Resources to decode the drawables from
+     * @param reqWidth  width the bitmaps are down-sampled to
+     * @param reqHeight height the bitmaps are down-sampled to
+     */
+    public BitmapLoader(Resources resources, int reqWidth, int reqHeight) {
+        this.resources = resources;
+        this.reqWidth = reqWidth;
+        this.reqHeight = reqHeight;
+
+        mainHandler = new Handler(Looper.getMainLooper());
+        decodeExecutor = Executors.newFixedThreadPool(DECODE_THREAD_COUNT, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "BitmapLoader");
+            }
+        });
+
+        reusableBitmaps = new ArrayList<>();
+        displayCounts = new IdentityHashMap<>();
+        prefetching = new SparseBooleanArray();
+
+        int cacheSizeKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / CACHE_HEAP_DIVIDER);
+        maxReusableBytes = Runtime.getRuntime().maxMemory() / REUSABLE_HEAP_DIVIDER;
+
+        memoryCache = new LruCache<Integer, Bitmap>(cacheSizeKb) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap value) {
+                return value.getByteCount() / 1024;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Integer key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue && oldValue.isMutable()) addReusableBitmap(oldValue);
+            }
+        };
+    }
+
+    /**
+     * Displays a drawable resource into an image view. A cached bitmap is set right away,
+     * otherwise the view is cleared and the bitmap is set once decoded, unless the view has been
+     * bound to another resource in the meantime.
+     *
+     * @param imageView  target view
+     * @param drawableID drawable resource ID
+     */
+    public void load(final ImageView imageView, final int drawableID) {
+        imageView.setTag(R.id.strd_tag_image_request, drawableID);
+
+        Bitmap cached = memoryCache.get(drawableID);
+
+        if (cached != null) {
+            display(imageView, cached);
+            return;
+        }
+
+        display(imageView, null);
+
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = decode(drawableID);
+
+                if (bitmap == null) return;
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (released) return;
+
+                        Object request = imageView.getTag(R.id.strd_tag_image_request);
+
+                        if (request instanceof Integer && (Integer) request == drawableID) {
+                            display(imageView, bitmap);
+                        }
+
+                        // Displayed first, the bitmap cannot be reused if the put evicts it
+                        memoryCache.put(drawableID, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Clears an image view, a pending load not being displayed into it anymore
+     *
+     * @param imageView Self-explanatory
+     */
+    public void cancel(ImageView imageView) {
+        imageView.setTag(R.id.strd_tag_image_request, null);
+        display(imageView, null);
+    }
+
+    /**
+     * Decodes a drawable resource into the cache ahead of its display, if not cached yet
+     *
+     * @param drawableID drawable resource ID
+     */
+    public void prefetch(final int drawableID) {
+        if (memoryCache.get(drawableID) != null || prefetching.get(drawableID)) return;
+
+        prefetching.put(drawableID, true);
+
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = decode(drawableID);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        prefetching.delete(drawableID);
+
+                        if (!released && bitmap != null) memoryCache.put(drawableID, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops the decode threads and drops every cached bitmap, the loader cannot be used anymore.
+     * Typically called when the activity is destroyed.
+     */
+    public void release() {
+        released = true;
+        decodeExecutor.shutdownNow();
+        mainHandler.removeCallbacksAndMessages(null);
+        clear();
+    }
+
+    /**
+     * Drops every cached and reusable bitmap still not displayed
+     */
+    public void clear() {
+        memoryCache.evictAll();
+
+        synchronized (reusableBitmaps) {
+            reusableBitmaps.clear();
+            reusableBytes = 0;
+        }
+    }
+
+    /**
+     * Keeps an evicted bitmap for reuse, dropping the oldest ones beyond the maximum size
+     */
+    private void addReusableBitmap(Bitmap bitmap) {
+        synchronized (reusableBitmaps) {
+            reusableBitmaps.add(bitmap);
+            reusableBytes += getSize(bitmap);
+
+            while (reusableBytes > maxReusableBytes && !reusableBitmaps.isEmpty()) {
+                reusableBytes -= getSize(reusableBitmaps.remove(0));
+            }
+        }
+    }
+
+    private static long getSize(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) return bitmap.getAllocationByteCount();
+
+        return bitmap.getByteCount();
+    }
+
+    /**
+     * Sets the bitmap into the view, keeping track of the displayed bitmaps so that none is
+     * reused while on screen.
+     */
+    private void display(ImageView imageView, Bitmap bitmap) {
+        Bitmap previous = (Bitmap) imageView.getTag(R.id.strd_tag_image_bitmap);
+
+        if (previous == bitmap) return;
+
+        synchronized (reusableBitmaps) {
+            if (previous != null) {
+                Integer count = displayCounts.get(previous);
+
+                if (count == null || count <= 1) {
+                    displayCounts.remove(previous);
+                } else {
+                    displayCounts.put(previous, count - 1);
+                }
+            }
+
+            if (bitmap != null) {
+                Integer count = displayCounts.get(bitmap);
+                displayCounts.put(bitmap, count == null ? 1 : count + 1);
+            }
+        }
+
+        imageView.setTag(R.id.strd_tag_image_bitmap, bitmap);
+        imageView.setImageBitmap(bitmap);
+    }
+
+    /**
+     * Decodes the drawable down-sampled to the requested size, reusing an evicted bitmap when
+     * one fits. Called on a decode thread.
+     */
+    private Bitmap decode(int drawableID) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, drawableID, options);
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inScaled = false;
+        options.inMutable = true;
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight);
+        options.inBitmap = takeReusableBitmap(options);
+
+        try {
+            return BitmapFactory.decodeResource(resources, drawableID, options);
+        } catch (IllegalArgumentException e) {
+            // The reused bitmap did not fit after all
+            options.inBitmap = null;
+            return BitmapFactory.decodeResource(resources, drawableID, options);
+        }
+    }
+
+    /**
+     * @return the largest power of two sample size keeping both dimensions above the requested ones
+     */
+    private int computeSampleSize(int width, int height) {
+        int sampleSize = 1;
+
+        if (reqWidth <= 0 || reqHeight <= 0) return sampleSize;
+
+        while ((width / (sampleSize * 2)) >= reqWidth && (height / (sampleSize * 2)) >= reqHeight) {
+            sampleSize *= 2;
+        }
+
+        return sampleSize;
+    }
+
+    /**
+     * Removes and returns a reusable bitmap able to hold the decoded image, null if none fits
+     */
+    private Bitmap takeReusableBitmap(BitmapFactory.Options options) {
+        synchronized (reusableBitmaps) {
+            Iterator<Bitmap> iterator = reusableBitmaps.iterator();
+
+            boolean recycledRemoved = false;
+
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+
+                if (candidate.isRecycled()) {
+                    // The size of a recycled bitmap is undefined, the total is computed again
+                    iterator.remove();
+                    recycledRemoved = true;
+                } else if (!displayCounts.containsKey(candidate) && canReuse(candidate, options)) {
+                    iterator.remove();
+                    reusableBytes -= getSize(candidate);
+                    if (recycledRemoved) sumReusableBytes();
+                    return candidate;
+                }
+            }
+
+            if (recycledRemoved) sumReusableBytes();
+        }
+
+        return null;
+    }
+
+    /**
+     * Computes again the size of the reusable bitmaps. Must hold the reusableBitmaps lock.
+     */
+    private void sumReusableBytes() {
+        reusableBytes = 0;
+
+        for (int i = 0; i < reusableBitmaps.size(); i++) {
+            reusableBytes += getSize(reusableBitmaps.get(i));
+        }
+    }
+
+    private boolean canReuse(Bitmap candidate, BitmapFactory.Options options) {
+        int width = options.outWidth / options.inSampleSize;
+        int height = options.outHeight / options.inSampleSize;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // Any bitmap at least as large as the decoded one can be reused
+            return width * height * 4 <= candidate.getAllocationByteCount();
+        }
+
+        // Before KitKat the sizes must be equal and the image cannot be sub-sampled
+        return options.inSampleSize == 1 && candidate.getWidth() == width && candidate.getHeight() == height;
+    }
+}
@@ -0,0 +1,254 @@
+package com.dancing_koala.swipetorevealdetails.ui.listeners;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.v4.view.ViewPager;
+
+/**
+ * Adapts the offscreen page limit of a carousel instead of keeping every page alive.
+ * A small window is kept around the current page and grows with the scroll velocity, the pages
+ * ahead in the fling direction being prefetched beyond it. The largest window depends on the
+ * app's memory class and shrinks back to the smallest one while the system is low on memory.
+ * The window only shrinks once the carousel rests, and the pager gets each new limit on the next
+ * animation frame, since the scroll callbacks run during its draw.
+ * Must be used from the main thread.
+ */
+public class AdaptiveOffscreenPageListener implements ViewPager.OnPageChangeListener, ComponentCallbacks2 {
+
+    /**
+     * Receives the positions worth preparing ahead of the scroll
+     */
+    public interface PrefetchListener {
+        /**
+         * Called while flinging for the pages just beyond the window, in the fling direction
+         *
+         * @param position position of the page, possibly out of the adapter's bounds
+         */
+        void onPrefetch(int position);
+    }
+
+    public static final int MIN_LIMIT = 1;
+
+    /**
+     * Scroll velocity adding one page to the window, in pages per second
+     */
+    private static final float PAGES_PER_SECOND_PER_EXTRA_PAGE = 2f;
+
+    /**
+     * Weight of the latest sample in the smoothed velocity
+     */
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+
+    /**
+     * Time the window stays at its smallest after a memory warning, in milliseconds
+     */
+    private static final long MEMORY_PRESSURE_COOLDOWN = 30000;
+
+    private final int maxLimit;
+
+    private ViewPager pager;
+    private PrefetchListener prefetchListener;
+
+    /**
+     * Limit given to the pager, or to be given by the posted update
+     */
+    private int limit;
+    private int scrollState;
+    private float lastScrollPosition;
+    private long lastScrollTime;
+    private float velocity;
+    private int lastPrefetchedPosition;
+    private long memoryPressureTime;
+
+    /**
+     * Gives the limit to the pager out of its draw pass, populating the pages there being unsafe
+     */
+    private final Runnable applyLimitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (pager != null) pager.setOffscreenPageLimit(limit);
+        }
+    };
+
+    /**
+     * @param context Context used to read the app's memory class
+     */
+    public AdaptiveOffscreenPageListener(Context context) {
+        maxLimit = computeMaxLimit(context);
+        limit = MIN_LIMIT;
+        memoryPressureTime = -MEMORY_PRESSURE_COOLDOWN;
+    }
+
+    /**
+     * @return the largest offscreen page limit allowed on this device
+     */
+    private static int computeMaxLimit(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && activityManager.isLowRamDevice()) {
+            return MIN_LIMIT;
+        }
+
+        final int memoryClass = activityManager.getMemoryClass();
+
+        if (memoryClass <= 48) return MIN_LIMIT;
+        if (memoryClass <= 128) return MIN_LIMIT + 1;
+        return MIN_LIMIT + 2;
+    }
+
+    /**
+     * Starts adapting the pager's offscreen page limit
+     *
+     * @param pager Self-explanatory
+     */
+    public void attach(ViewPager pager) {
+        this.pager = pager;
+        limit = MIN_LIMIT;
+        scrollState = ViewPager.SCROLL_STATE_IDLE;
+        pager.setOffscreenPageLimit(limit);
+        pager.addOnPageChangeListener(this);
+    }
+
+    /**
+     * Stops adapting the pager's offscreen page limit, the current one being kept
+     */
+    public void detach() {
+        if (pager == null) return;
+
+        pager.removeOnPageChangeListener(this);
+        pager.removeCallbacks(applyLimitRunnable);
+        pager = null;
+    }
+
+    public void setPrefetchListener(PrefetchListener prefetchListener) {
+        this.prefetchListener = prefetchListener;
+    }
+
+    /**
+     * @return the largest offscreen page limit, which makes 2 * maxLimit + 1 live pages
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @see ViewPager.OnPageChangeListener#onPageScrolled(int, float, int)
+     */
+    @Override
+    public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+        final float scrollPosition = position + positionOffset;
+        final long now = SystemClock.uptimeMillis();
+
+        if (lastScrollTime > 0 && now > lastScrollTime) {
+            float sample = (scrollPosition - lastScrollPosition) * 1000f / (now - lastScrollTime);
+            velocity += (sample - velocity) * VELOCITY_SMOOTHING;
+        }
+
+        lastScrollPosition = scrollPosition;
+        lastScrollTime = now;
+
+        final int extraPages = (int) (Math.abs(velocity) / PAGES_PER_SECOND_PER_EXTRA_PAGE);
+
+        setLimit(MIN_LIMIT + extraPages);
+
+        if (extraPages > 0) prefetchAhead(position, velocity > 0 ? 1 : -1, extraPages);
+    }
+
+    /**
+     * Prefetches the pages just beyond the window in the given direction, each page once
+     */
+    private void prefetchAhead(int position, int direction, int count) {
+        if (prefetchListener == null) return;
+
+        final int first = direction > 0 ? position + 1 + limit : position - limit;
+
+        for (int i = 0; i < count; i++) {
+            final int target = first + i * direction;
+
+            if ((direction > 0 && target <= lastPrefetchedPosition) || (direction < 0 && target >= lastPrefetchedPosition)) {
+                continue;
+            }
+
+            lastPrefetchedPosition = target;
+            prefetchListener.onPrefetch(target);
+        }
+    }
+
+    /**
+     * @see ViewPager.OnPageChangeListener#onPageSelected(int)
+     */
+    @Override
+    public void onPageSelected(int position) {
+        // The window is driven by the scroll, the pages ahead of the new one are prefetched again
+        lastPrefetchedPosition = position;
+    }
+
+    /**
+     * @see ViewPager.OnPageChangeListener#onPageScrollStateChanged(int)
+     */
+    @Override
+    public void onPageScrollStateChanged(int state) {
+        scrollState = state;
+
+        if (state == ViewPager.SCROLL_STATE_DRAGGING || state == ViewPager.SCROLL_STATE_SETTLING) {
+            lastPrefetchedPosition = pager != null ? pager.getCurrentItem() : 0;
+        } else if (state == ViewPager.SCROLL_STATE_IDLE) {
+            // Back to the smallest window once the carousel rests
+            velocity = 0f;
+            lastScrollTime = 0;
+            setLimit(MIN_LIMIT);
+        }
+    }
+
+    /**
+     * Applies the limit, bounded by the memory class and the memory pressure, on the next
+     * animation frame. A smaller limit is only applied while idle, so that a scroll slowing
+     * down does not destroy the pages it is about to show.
+     */
+    private void setLimit(int wanted) {
+        final boolean underPressure = SystemClock.uptimeMillis() - memoryPressureTime < MEMORY_PRESSURE_COOLDOWN;
+        final int bounded = Math.max(MIN_LIMIT, Math.min(wanted, underPressure ? MIN_LIMIT : maxLimit));
+
+        if (bounded == limit) return;
+        if (bounded < limit && scrollState != ViewPager.SCROLL_STATE_IDLE) return;
+
+        limit = bounded;
+
+        if (pager == null) return;
+
+        pager.removeCallbacks(applyLimitRunnable);
+        pager.postOnAnimation(applyLimitRunnable);
+    }
+
+    /**
+     * @see ComponentCallbacks2#onTrimMemory(int)
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        // Hiding the UI frees memory by itself, it is no sign of pressure
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            memoryPressureTime = SystemClock.uptimeMillis();
+            setLimit(MIN_LIMIT);
+        }
+    }
+
+    /**
+     * @see ComponentCallbacks2#onLowMemory()
+     */
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    /**
+     * @see ComponentCallbacks2#onConfigurationChanged(Configuration)
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Nothing depends on the configuration
+    }
+}
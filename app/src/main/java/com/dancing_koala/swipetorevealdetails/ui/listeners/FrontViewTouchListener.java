@@ -1,37 +1,136 @@
 package com.dancing_koala.swipetorevealdetails.ui.listeners;
 
+import android.os.SystemClock;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
-
-import com.dancing_koala.swipetorevealdetails.R;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+import com.dancing_koala.swipetorevealdetails.core.SwipeMath;
+import com.dancing_koala.swipetorevealdetails.ui.animations.ChoreographerFrameClock;
+import com.dancing_koala.swipetorevealdetails.ui.animations.FrameClock;
+import com.dancing_koala.swipetorevealdetails.ui.animations.RenderThreadSettleAnimator;
+import com.dancing_koala.swipetorevealdetails.ui.animations.SpringSettleAnimator;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.SwipeMetricsRecorder;
+import com.dancing_koala.swipetorevealdetails.ui.replay.GestureRecorder;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
 
 /**
- * Listener dedicated to the front view's vertical swiping and to views animations
+ * Listener dedicated to the front view's vertical swiping and to views animations.
+ * Touch samples are accumulated and applied once per frame from the tracked reveal offset.
  */
-public class FrontViewTouchListener implements View.OnTouchListener {
+public class FrontViewTouchListener implements View.OnTouchListener, SpringSettleAnimator.Listener, Choreographer.FrameCallback {
 
-    private static final float
-            MAX_SWIPE_PERCENT = 1.0f,
-            MIN_SWIPE_PERCENT = 0.0f,
-            MAX_SCALE = 1.0f,
-            MIN_SCALE = 0.8f;
+    /**
+     * How far ahead the drag is extrapolated when touch prediction is enabled, in seconds
+     */
+    private static final float PREDICTION_TIME = 0.008f;
 
-    private static final long DEFAULT_ANIM_DURATION = 150;
+    /**
+     * Bounds of the render thread settle duration, in milliseconds
+     */
+    private static final long MIN_SETTLE_DURATION = 120;
+    private static final long MAX_SETTLE_DURATION = 300;
 
     private boolean swiping;
+    private boolean claimed;
+    private boolean revealed;
+    private boolean revealPending;
+    private boolean inFrame;
+    private boolean animating;
+    private boolean progressDispatchScheduled;
+    private boolean dragFrameScheduled;
+    private boolean touchPredictionEnabled;
+    private boolean renderThreadSettleEnabled;
     private float originY;
-    private float downY;
+    private float downRawY;
+    private long pendingEventTime;
+    private float dragStartOffset;
+    private float pendingOffset;
+    private float revealOffset;
+    private float settleTarget;
+    private float revealProgress;
+    private float dispatchedProgress;
     private float verticalThreshold;
-    private int backviewContentID;
     private int backViewHeight;
     private float minScaleX;
     private float minScaleY;
+    private float minFlingVelocity;
+    private float touchSlop;
+    private long revealHoldTime;
 
     /**
      * Self-explanatory
      */
     private View backView;
 
+    /**
+     * Front view being swiped, known from the first touch
+     */
+    private View frontView;
+
+    /**
+     * Tracks the drag and release velocity, obtained on touch down and recycled on release
+     */
+    private VelocityTracker velocityTracker;
+
+    /**
+     * Settles the reveal offset once released, created on the first touch as it is bound
+     * to the main thread
+     */
+    private SpringSettleAnimator settleAnimator;
+
+    /**
+     * Settles the views off the main thread when enabled and supported, created on the first
+     * settle using it
+     */
+    private RenderThreadSettleAnimator renderSettleAnimator;
+
+    /**
+     * Paces the drag updates and the settle, the Choreographer unless set, retrieved on the
+     * first touch
+     */
+    private FrameClock frameClock;
+
+    /**
+     * Records the touch events when set
+     */
+    private GestureRecorder gestureRecorder;
+
+    /**
+     * Records the gestures metrics when set
+     */
+    private SwipeMetricsRecorder metricsRecorder;
+
+    /**
+     * Layout owning the front and back views
+     */
+    private SwipeToRevealLayout revealLayout;
+
+    /**
+     * Notified when a swipe leaves the card revealed or collapsed
+     */
+    private SwipeToRevealLayout.OnRevealChangeListener onRevealChangeListener;
+
+    /**
+     * Notified of the reveal progress once per frame at most. The array is replaced rather than
+     * modified, so that listeners can be added or removed while it is dispatched.
+     */
+    private SwipeToRevealLayout.OnRevealProgressListener[] progressListeners;
+
+    /**
+     * Dispatches the progress changed out of a frame callback, on the next frame
+     */
+    private final Choreographer.FrameCallback progressFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            progressDispatchScheduled = false;
+            dispatchProgress();
+        }
+    };
+
     /**
      * Constructor
      */
@@ -39,10 +138,10 @@ public class FrontViewTouchListener implements View.OnTouchListener {
         backViewHeight = -1;
         originY = -1;
         verticalThreshold = -1;
-        downY = -1;
+        downRawY = -1;
         swiping = false;
-        minScaleX = MIN_SCALE;
-        minScaleY = MIN_SCALE;
+        minScaleX = SwipeMath.MIN_SCALE;
+        minScaleY = SwipeMath.MIN_SCALE;
     }
 
     /**
@@ -50,63 +149,96 @@ public class FrontViewTouchListener implements View.OnTouchListener {
      */
     @Override
     public boolean onTouch(View v, MotionEvent event) {
+        if (gestureRecorder != null) gestureRecorder.record(event);
+
         switch (event.getActionMasked()) {
 
             case MotionEvent.ACTION_DOWN:
-                if (backViewHeight < 1) {
-                    // Initializing the back view content height
-                    backViewHeight = backView.findViewById(backviewContentID).getHeight();
-                    // Initializing the vertical threshold being a third of the back view content height
-                    verticalThreshold = backViewHeight / 3;
+                // Inflating the back view content on the first reveal gesture when it is lazy
+                if (revealLayout != null && !revealLayout.isBackViewInflated()) {
+                    revealLayout.prefetchBackView();
                 }
 
+                if (settleAnimator == null) {
+                    settleAnimator = new SpringSettleAnimator(this, getFrameClock());
+                    ViewConfiguration configuration = ViewConfiguration.get(v.getContext());
+                    minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+                    touchSlop = configuration.getScaledTouchSlop();
+                }
+
+                // Catching the views where a running settle left them
+                cancelSettle();
+
+                if (metricsRecorder != null) metricsRecorder.onGestureStart(event.getEventTime());
+
                 // Initialiazing the original Y coordinate of the front view
                 if (originY < 0) originY = v.getY();
 
-                downY = event.getY();
+                frontView = v;
+                downRawY = event.getRawY();
+                dragStartOffset = revealOffset;
+                pendingOffset = revealOffset;
                 swiping = true;
 
+                // A revealed card owns every vertical gesture, as does any card without hold time
+                claimed = revealHoldTime <= 0 || revealOffset != 0;
+                if (claimed && revealHoldTime > 0) claimGesture(v);
+
+                if (velocityTracker == null) {
+                    velocityTracker = VelocityTracker.obtain();
+                } else {
+                    velocityTracker.clear();
+                }
+                addMovement(event);
+                updateAnimating();
+
                 return true;
 
             case MotionEvent.ACTION_MOVE:
-                if (swiping) {
-                    float newY = v.getY() - (downY - event.getY());
-
-                    // Swiping lower than the original Y or oo high is useless
-                    // so we check that newY is between the minimum and maximum values.
-                    if (newY < originY && newY > (originY - backViewHeight - verticalThreshold)) {
-                        // move the front view to the new Y coordinate
-                        v.setY(newY);
-
-                        // Swiping percent calculated with the difference of the front view divided
-                        // by the height of the back view content and then clamp to make sure the
-                        // the value is between 0 and 1 included.
-                        float swipePercent = clamp((originY - v.getY()) / backViewHeight, MIN_SWIPE_PERCENT, MAX_SWIPE_PERCENT);
-
-                        // Scale calculated with the swipe percent and then clamp to make sure its
-                        // value is between MIN_SCALE and MAX_SCALE.
-                        backView.setScaleX(clamp(swipePercent * (MAX_SCALE - minScaleX) + minScaleX, minScaleX, MAX_SCALE));
-                        backView.setScaleY(clamp(swipePercent * (MAX_SCALE - minScaleY) + minScaleY, minScaleY, MAX_SCALE));
-
-                        // Alpha value is the same as the swiping percent.
-                        backView.setAlpha(swipePercent);
-
-                    } else if (v.getY() != originY) {
-                        // The Y coodrinate of the front is out of the authorized bounds
-                        swiping = false;
-                        checkPosition(v);
+                if (swiping && !claimed) tryClaimGesture(v, event);
+
+                if (swiping && claimed) {
+                    // Historical samples are taken into account by the velocity tracker
+                    addMovement(event);
+
+                    // Only the latest offset matters, it is applied on the next frame
+                    pendingOffset = SwipeMath.dragOffset(dragStartOffset, downRawY, event.getRawY());
+
+                    if (!dragFrameScheduled) {
+                        pendingEventTime = event.getEventTime();
+                        dragFrameScheduled = true;
+                        frameClock.postFrameCallback(this);
                     }
                 }
                 return true;
 
             case MotionEvent.ACTION_CANCEL:
             case MotionEvent.ACTION_UP:
+                if (swiping) {
+                    addMovement(event);
+
+                    // Flushing the samples not applied yet, the progress being dispatched by the
+                    // first frame of the settle that follows, if any
+                    inFrame = true;
+                    applyPendingOffset(false);
+                    inFrame = false;
+                }
+
                 if (swiping) {
                     // If still swiping when released, the frontview is repositionned
-                    checkPosition(v);
+                    checkPosition();
                     swiping = false;
                 }
 
+                if (!isSettling()) scheduleProgressDispatch();
+
+                if (velocityTracker != null) {
+                    velocityTracker.recycle();
+                    velocityTracker = null;
+                }
+
+                updateAnimating();
+
                 return true;
         }
 
@@ -114,50 +246,501 @@ public class FrontViewTouchListener implements View.OnTouchListener {
     }
 
     /**
-     * Reposition the front view
+     * Claims the gesture if the touch has been held still for the hold time, the scrolling
+     * parent having taken it otherwise. The drag starts from the current position.
+     */
+    private void tryClaimGesture(View v, MotionEvent event) {
+        if (event.getEventTime() - event.getDownTime() < revealHoldTime) return;
+        if (Math.abs(event.getRawY() - downRawY) >= touchSlop) return;
+
+        claimed = true;
+        downRawY = event.getRawY();
+        claimGesture(v);
+        updateAnimating();
+    }
+
+    /**
+     * Keeps the parents from intercepting the rest of the gesture
+     */
+    private void claimGesture(View v) {
+        ViewParent parent = v.getParent();
+
+        if (parent != null) parent.requestDisallowInterceptTouchEvent(true);
+    }
+
+    /**
+     * @see Choreographer.FrameCallback#doFrame(long)
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        dragFrameScheduled = false;
+
+        if (swiping) {
+            if (metricsRecorder != null) metricsRecorder.onInputApplied(frameTimeNanos, pendingEventTime);
+
+            inFrame = true;
+            applyPendingOffset(touchPredictionEnabled);
+            inFrame = false;
+
+            dispatchProgress();
+        }
+    }
+
+    /**
+     * @return the source of the frames, the Choreographer unless set
+     */
+    private FrameClock getFrameClock() {
+        if (frameClock == null) frameClock = new ChoreographerFrameClock();
+
+        return frameClock;
+    }
+
+    /**
+     * Applies the offset accumulated since the last frame, or ends the swipe when it went out of
+     * the authorized bounds.
+     *
+     * @param predict whether the offset is extrapolated with the current drag velocity
+     */
+    private void applyPendingOffset(boolean predict) {
+        if (dragFrameScheduled) {
+            dragFrameScheduled = false;
+            frameClock.removeFrameCallback(this);
+        }
+
+        final float maxOffset = SwipeMath.maxDragOffset(backViewHeight, verticalThreshold);
+
+        // Swiping lower than the original Y or too high is useless
+        // so we check that the offset is between the minimum and maximum values.
+        if (pendingOffset > 0 && pendingOffset < maxOffset) {
+            float offset = pendingOffset;
+
+            if (predict && velocityTracker != null) {
+                velocityTracker.computeCurrentVelocity(1000);
+                offset = SwipeMath.clamp(offset - velocityTracker.getYVelocity() * PREDICTION_TIME, 0f, maxOffset);
+            }
+
+            // move the views to the new reveal offset
+            applyRevealOffset(offset);
+
+        } else if (revealOffset != 0) {
+            // The Y coodrinate of the front is out of the authorized bounds
+            checkPosition();
+            swiping = false;
+        }
+    }
+
+    /**
+     * Feeds the velocity tracker with screen coordinates, the event's own coordinates being
+     * relative to the moving front view.
+     *
+     * @param event touch event
+     */
+    private void addMovement(MotionEvent event) {
+        if (velocityTracker == null) return;
+
+        final float deltaY = event.getRawY() - event.getY();
+        event.offsetLocation(0, deltaY);
+        velocityTracker.addMovement(event);
+        event.offsetLocation(0, -deltaY);
+    }
+
+    /**
+     * Reposition the front view, opening or closing depending on the release velocity or, for
+     * slow releases, on the swiped distance.
+     */
+    private void checkPosition() {
+        boolean settling = false;
+
+        if (revealOffset != 0) {
+            // Velocity of the reveal offset which grows when the front view goes up
+            float velocity = 0f;
+
+            if (velocityTracker != null) {
+                velocityTracker.computeCurrentVelocity(1000);
+                velocity = -velocityTracker.getYVelocity();
+            }
+
+            boolean open = SwipeMath.shouldOpen(revealOffset, velocity, verticalThreshold, minFlingVelocity);
+
+            settleTarget = open ? backViewHeight : 0f;
+            settling = true;
+
+            if (useRenderThreadSettle()) {
+                startRenderThreadSettle(velocity);
+            } else {
+                // One value drives both views, each frame.
+                settleAnimator.start(revealOffset, settleTarget, velocity);
+            }
+        }
+
+        if (metricsRecorder != null) {
+            metricsRecorder.onRelease(SystemClock.uptimeMillis(), settling, revealOffset > 0);
+        }
+    }
+
+    /**
+     * @return true if the settle can run off the main thread: enabled, supported, paced by the
+     * display rather than by a replay clock, and with no one following the progress of each frame
+     */
+    private boolean useRenderThreadSettle() {
+        return renderThreadSettleEnabled
+                && RenderThreadSettleAnimator.isSupported()
+                && frameClock instanceof ChoreographerFrameClock
+                && progressListeners == null;
+    }
+
+    /**
+     * Hands the views' final properties for the settle target to the render thread animator
+     *
+     * @param velocity reveal offset velocity at release
+     */
+    private void startRenderThreadSettle(float velocity) {
+        if (renderSettleAnimator == null) renderSettleAnimator = new RenderThreadSettleAnimator(this);
+
+        final float swipePercent = SwipeMath.swipePercent(settleTarget, backViewHeight);
+        final long duration = SwipeMath.settleDuration(revealOffset, settleTarget, velocity, MIN_SETTLE_DURATION, MAX_SETTLE_DURATION);
+
+        renderSettleAnimator.start(frontView, backView, originY, settleTarget,
+                SwipeMath.backScale(swipePercent, minScaleX),
+                SwipeMath.backScale(swipePercent, minScaleY),
+                swipePercent,
+                duration);
+    }
+
+    /**
+     * Stops any running settle, the views staying where it left them
+     */
+    private void cancelSettle() {
+        if (settleAnimator != null) settleAnimator.cancel();
+        if (renderSettleAnimator != null) renderSettleAnimator.cancel();
+    }
+
+    /**
+     * @return true while either settle runs
+     */
+    private boolean isSettling() {
+        return (settleAnimator != null && settleAnimator.isRunning())
+                || (renderSettleAnimator != null && renderSettleAnimator.isRunning());
+    }
+
+    /**
+     * Positions the front view and scales and fades the back view for the given reveal offset
+     *
+     * @param revealOffset distance between the front view's original Y and its current Y
+     */
+    private void applyRevealOffset(float revealOffset) {
+        this.revealOffset = revealOffset;
+        frontView.setY(originY - revealOffset);
+        applyBackTransform();
+    }
+
+    /**
+     * Scales and fades the back view for the current reveal offset
+     */
+    private void applyBackTransform() {
+        float swipePercent = SwipeMath.swipePercent(revealOffset, backViewHeight);
+
+        backView.setScaleX(SwipeMath.backScale(swipePercent, minScaleX));
+        backView.setScaleY(SwipeMath.backScale(swipePercent, minScaleY));
+
+        // Alpha value is the same as the swiping percent.
+        backView.setAlpha(swipePercent);
+        if (revealLayout != null) revealLayout.updateBackViewVisibility();
+
+        revealProgress = swipePercent;
+
+        // Changes made by a frame callback are dispatched at its end
+        if (!inFrame) scheduleProgressDispatch();
+    }
+
+    /**
+     * Dispatches the progress on the next frame if it changed and if it is observed
+     */
+    private void scheduleProgressDispatch() {
+        if (progressListeners == null || progressDispatchScheduled || revealProgress == dispatchedProgress) return;
+
+        progressDispatchScheduled = true;
+        getFrameClock().postFrameCallback(progressFrameCallback);
+    }
+
+    /**
+     * Dispatches the progress to the listeners if it changed since the last dispatch
+     */
+    private void dispatchProgress() {
+        if (progressDispatchScheduled) {
+            progressDispatchScheduled = false;
+            frameClock.removeFrameCallback(progressFrameCallback);
+        }
+
+        final SwipeToRevealLayout.OnRevealProgressListener[] listeners = progressListeners;
+
+        if (listeners == null || revealProgress == dispatchedProgress) return;
+
+        dispatchedProgress = revealProgress;
+
+        for (SwipeToRevealLayout.OnRevealProgressListener listener : listeners) {
+            listener.onRevealProgress(revealLayout, revealProgress, revealOffset);
+        }
+    }
+
+    /**
+     * @return how far the back view is revealed, from 0 when collapsed to 1 when revealed
+     */
+    public float getRevealProgress() {
+        return revealProgress;
+    }
+
+    /**
+     * @param listener notified of the reveal progress, once per frame at most
+     */
+    public void addOnRevealProgressListener(SwipeToRevealLayout.OnRevealProgressListener listener) {
+        final int count = progressListeners != null ? progressListeners.length : 0;
+        SwipeToRevealLayout.OnRevealProgressListener[] listeners = new SwipeToRevealLayout.OnRevealProgressListener[count + 1];
+
+        if (count > 0) System.arraycopy(progressListeners, 0, listeners, 0, count);
+        listeners[count] = listener;
+
+        // A new listener gets the current progress on the next frame
+        progressListeners = listeners;
+        dispatchedProgress = -1f;
+        scheduleProgressDispatch();
+    }
+
+    /**
+     * @param listener listener added by {@link #addOnRevealProgressListener(SwipeToRevealLayout.OnRevealProgressListener)}
+     */
+    public void removeOnRevealProgressListener(SwipeToRevealLayout.OnRevealProgressListener listener) {
+        if (progressListeners == null) return;
+
+        for (int i = 0; i < progressListeners.length; i++) {
+            if (progressListeners[i] != listener) continue;
+
+            if (progressListeners.length == 1) {
+                progressListeners = null;
+
+                if (progressDispatchScheduled) {
+                    progressDispatchScheduled = false;
+                    frameClock.removeFrameCallback(progressFrameCallback);
+                }
+                return;
+            }
+
+            SwipeToRevealLayout.OnRevealProgressListener[] listeners = new SwipeToRevealLayout.OnRevealProgressListener[progressListeners.length - 1];
+            System.arraycopy(progressListeners, 0, listeners, 0, i);
+            System.arraycopy(progressListeners, i + 1, listeners, i, listeners.length - i);
+            progressListeners = listeners;
+            return;
+        }
+    }
+
+    /**
+     * Called each frame by the spring settle, and once with the final offset by the render
+     * thread settle.
+     *
+     * @see SpringSettleAnimator.Listener#onSettleUpdate(float)
+     */
+    @Override
+    public void onSettleUpdate(float value) {
+        inFrame = true;
+        applyRevealOffset(value);
+        inFrame = false;
+
+        dispatchProgress();
+    }
+
+    /**
+     * @see SpringSettleAnimator.Listener#onSettleEnd(float, boolean)
+     */
+    @Override
+    public void onSettleEnd(float value, boolean canceled) {
+        // The views already show the last value
+        if (metricsRecorder != null) metricsRecorder.onGestureEnd(settleTarget > 0, canceled);
+
+        if (!canceled) {
+            updateAnimating();
+            updateRevealed(settleTarget > 0);
+        }
+    }
+
+    /**
+     * Tells the layout when the views start and stop moving, a claimed drag or a settle, so that
+     * it only keeps them on hardware layers meanwhile. A settle canceled by a new touch is
+     * followed by the drag, the update being left to the touch so that the layers are kept.
+     */
+    private void updateAnimating() {
+        final boolean animating = (swiping && claimed) || isSettling();
+
+        if (this.animating == animating) return;
+
+        this.animating = animating;
+
+        if (revealLayout != null) revealLayout.setRevealAnimating(animating);
+    }
+
+    /**
+     * Keeps the settled state and notifies its changes
+     */
+    private void updateRevealed(boolean revealed) {
+        if (this.revealed == revealed) return;
+
+        this.revealed = revealed;
+
+        if (onRevealChangeListener != null) onRevealChangeListener.onRevealChanged(revealLayout, revealed);
+    }
+
+    /**
+     * Puts the views in the revealed or collapsed state without animation nor notification,
+     * stopping any running animation and ongoing swipe. Revealing is delayed until the back
+     * view has been laid out.
+     *
+     * @param revealed Self-explanatory
+     */
+    public void setRevealed(boolean revealed) {
+        reset(frontView);
+
+        if (!revealed) return;
+
+        this.revealed = true;
+        revealPending = true;
+        applyPendingReveal();
+    }
+
+    public boolean isRevealed() {
+        return revealed;
+    }
+
+    /**
+     * @return true when the card rests collapsed, neither swiped nor settling
+     */
+    public boolean isCollapsed() {
+        return !swiping && !revealPending && revealOffset == 0 && !isSettling();
+    }
+
+    /**
+     * Reveals the back view if it was asked to before being laid out
+     */
+    private void applyPendingReveal() {
+        if (!revealPending || frontView == null || originY < 0 || backViewHeight <= 0) return;
+
+        revealPending = false;
+        applyRevealOffset(backViewHeight);
+    }
+
+    /**
+     * Puts the views back in their collapsed state without animation, stopping any running
+     * animation and ongoing swipe.
      *
      * @param frontView Self-explanatory
      */
-    private void checkPosition(View frontView) {
+    public void reset(View frontView) {
+        if (swiping && metricsRecorder != null) metricsRecorder.onGestureEnd(false, true);
+
+        swiping = false;
+        revealed = false;
+        revealPending = false;
+        downRawY = -1;
+        cancelSettle();
+        revealOffset = 0;
+
+        if (dragFrameScheduled) {
+            dragFrameScheduled = false;
+            frameClock.removeFrameCallback(this);
+        }
+
+        if (originY >= 0 && frontView != null) frontView.setY(originY);
+
+        // Same path as every offset change, so that the progress follows
+        if (backView != null) applyBackTransform();
+
+        updateAnimating();
+    }
+
+    /**
+     * Replaces the source of the frames, stopping any running animation. A swipe in progress is
+     * ended as if released, the views settling with the new clock. Used to replay gestures with
+     * a virtual clock.
+     *
+     * @param frameClock source of the frames, null for the Choreographer
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        cancelSettle();
 
-        final float frontY = frontView.getY();
+        if (dragFrameScheduled) {
+            dragFrameScheduled = false;
+            this.frameClock.removeFrameCallback(this);
+        }
 
-        if (frontY != originY) {
-            // The current front view's Y coordinate is different from the original Y so
-            // we reposition the view accordingly.
-            float targetY = (originY - frontY > verticalThreshold) ? originY - backViewHeight : originY;
-            float targetAlpha = (originY - frontY > verticalThreshold) ? MAX_SCALE : 0f;
-            float targetScaleX = (originY - frontY > verticalThreshold) ? MAX_SCALE : minScaleX;
-            float targetScaleY = (originY - frontY > verticalThreshold) ? MAX_SCALE : minScaleY;
+        if (progressDispatchScheduled) {
+            progressDispatchScheduled = false;
+            this.frameClock.removeFrameCallback(progressFrameCallback);
+        }
 
-            //TODO animate the views using an AnimatorSet.
+        this.frameClock = frameClock;
 
-            // Animating the front view.
-            frontView.animate()
-                    .y(targetY)
-                    .setDuration(DEFAULT_ANIM_DURATION)
-                    .start();
+        // Created again right away, the next release settling with the new clock
+        if (settleAnimator != null) settleAnimator = new SpringSettleAnimator(this, getFrameClock());
 
-            // Animating the back view.
-            backView.animate()
-                    .scaleX(targetScaleX)
-                    .scaleY(targetScaleY)
-                    .alpha(targetAlpha)
-                    .setDuration(DEFAULT_ANIM_DURATION)
-                    .start();
+        if (swiping) {
+            checkPosition();
+            swiping = false;
+
+            if (velocityTracker != null) {
+                velocityTracker.recycle();
+                velocityTracker = null;
+            }
         }
+
+        updateAnimating();
+
+        scheduleProgressDispatch();
+    }
+
+    /**
+     * @param gestureRecorder recorder of the touch events, null to stop recording
+     */
+    public void setGestureRecorder(GestureRecorder gestureRecorder) {
+        this.gestureRecorder = gestureRecorder;
     }
 
     /**
-     * Clamps a float value
+     * @return distance between the front view's original Y and its current Y
+     */
+    public float getRevealOffset() {
+        return revealOffset;
+    }
+
+    /**
+     * @param frontView front view, known before the first touch so that the state can be set
+     */
+    public void setFrontView(View frontView) {
+        this.frontView = frontView;
+    }
+
+    /**
+     * Sets the Y of the front view when collapsed, pushed by the layout whenever it changes
+     *
+     * @param originY Self-explanatory
+     */
+    public void setOriginY(float originY) {
+        this.originY = originY;
+
+        if (frontView != null) frontView.setY(originY - revealOffset);
+
+        applyPendingReveal();
+    }
+
+    /**
+     * Sets how long a touch has to be held still before the card takes the vertical gesture
+     * over from a scrolling parent. 0, the default, makes the card take every gesture.
      *
-     * @param val value to clamp
-     * @param min minimum value to use for clamping
-     * @param max maximum value to use for clamping
-     * @return the value clamped
+     * @param revealHoldTime Self-explanatory, in milliseconds
      */
-    private float clamp(float val, float min, float max) {
-        return Math.min(Math.max(val, min), max);
+    public void setRevealHoldTime(long revealHoldTime) {
+        this.revealHoldTime = revealHoldTime;
+    }
+
+    public void setOnRevealChangeListener(SwipeToRevealLayout.OnRevealChangeListener onRevealChangeListener) {
+        this.onRevealChangeListener = onRevealChangeListener;
     }
 
     public boolean hasBackView() {
@@ -168,15 +751,75 @@ public class FrontViewTouchListener implements View.OnTouchListener {
         this.backView = backView;
     }
 
-    public void setMinScaleX(float minScaleX) {
-        this.minScaleX = minScaleX;
+    /**
+     * @param metricsRecorder recorder of the gestures metrics, null to stop recording
+     */
+    public void setMetricsRecorder(SwipeMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
     }
 
-    public void setMinScaleY(float minScaleY) {
+    public void setRevealLayout(SwipeToRevealLayout revealLayout) {
+        this.revealLayout = revealLayout;
+    }
+
+    /**
+     * Enables extrapolating the drag by a few milliseconds with its current velocity to reduce
+     * the perceived input latency. Disabled by default.
+     *
+     * @param touchPredictionEnabled Self-explanatory
+     */
+    public void setTouchPredictionEnabled(boolean touchPredictionEnabled) {
+        this.touchPredictionEnabled = touchPredictionEnabled;
+    }
+
+    /**
+     * Enables settling the views on the render thread from Lollipop, the spring settle being
+     * used below, while replaying, and while progress listeners are registered as they need
+     * every frame. The settle then follows an ease-out curve instead of the spring. Disabled
+     * by default.
+     *
+     * @param renderThreadSettleEnabled Self-explanatory
+     */
+    public void setRenderThreadSettleEnabled(boolean renderThreadSettleEnabled) {
+        this.renderThreadSettleEnabled = renderThreadSettleEnabled;
+    }
+
+    /**
+     * Sets the scales of the back view when collapsed and updates the back view for the current
+     * reveal offset, so that a geometry change in the middle of a gesture does not reset it.
+     *
+     * @param minScaleX horizontal scale when collapsed
+     * @param minScaleY vertical scale when collapsed
+     */
+    public void setMinScale(float minScaleX, float minScaleY) {
+        this.minScaleX = minScaleX;
         this.minScaleY = minScaleY;
+
+        if (backView != null) applyBackTransform();
     }
 
-    public void setBackviewContentID(int backviewContentID) {
-        this.backviewContentID = backviewContentID;
+    /**
+     * Sets the height of the back view content, pushed by the layout whenever it changes.
+     * A settled open card follows the new height, otherwise the back view is updated for the
+     * current reveal offset.
+     *
+     * @param backViewHeight back view content height
+     */
+    public void setBackViewHeight(int backViewHeight) {
+        final boolean settledOpen = !swiping
+                && !isSettling()
+                && this.backViewHeight > 0
+                && revealOffset == this.backViewHeight;
+
+        this.backViewHeight = backViewHeight;
+        verticalThreshold = SwipeMath.verticalThreshold(backViewHeight);
+
+        if (revealPending) {
+            applyPendingReveal();
+        } else if (settledOpen && frontView != null) {
+            applyRevealOffset(backViewHeight);
+        } else if (backView != null) {
+            applyBackTransform();
+        }
     }
 }
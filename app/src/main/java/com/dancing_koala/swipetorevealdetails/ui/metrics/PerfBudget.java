@@ -0,0 +1,70 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+/**
+ * Maximum counts of expensive operations allowed for a single swipe or page flip, checked
+ * against the {@link PerfCounters}. A negative maximum leaves the operation unbounded.
+ */
+public class PerfBudget {
+
+    private static final int UNBOUNDED = -1;
+
+    private int maxMeasurePasses = UNBOUNDED;
+    private int maxLayoutPasses = UNBOUNDED;
+    private int maxInflations = UNBOUNDED;
+    private int maxViewLookups = UNBOUNDED;
+    private long maxAllocatedBytes = UNBOUNDED;
+
+    public PerfBudget setMaxMeasurePasses(int maxMeasurePasses) {
+        this.maxMeasurePasses = maxMeasurePasses;
+        return this;
+    }
+
+    public PerfBudget setMaxLayoutPasses(int maxLayoutPasses) {
+        this.maxLayoutPasses = maxLayoutPasses;
+        return this;
+    }
+
+    public PerfBudget setMaxInflations(int maxInflations) {
+        this.maxInflations = maxInflations;
+        return this;
+    }
+
+    public PerfBudget setMaxViewLookups(int maxViewLookups) {
+        this.maxViewLookups = maxViewLookups;
+        return this;
+    }
+
+    public PerfBudget setMaxAllocatedBytes(long maxAllocatedBytes) {
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        return this;
+    }
+
+    /**
+     * Checks the current counts against the budget
+     *
+     * @param scope name of the measured operation, used in the failure message
+     * @throws IllegalStateException when at least one count exceeds its maximum
+     */
+    public void check(String scope) {
+        StringBuilder failures = null;
+
+        failures = appendIfExceeded(failures, "measure passes", PerfCounters.getMeasurePasses(), maxMeasurePasses);
+        failures = appendIfExceeded(failures, "layout passes", PerfCounters.getLayoutPasses(), maxLayoutPasses);
+        failures = appendIfExceeded(failures, "inflations", PerfCounters.getInflations(), maxInflations);
+        failures = appendIfExceeded(failures, "view lookups", PerfCounters.getViewLookups(), maxViewLookups);
+        failures = appendIfExceeded(failures, "allocated bytes", PerfCounters.getAllocatedBytes(), maxAllocatedBytes);
+
+        if (failures != null) {
+            throw new IllegalStateException(scope + " exceeded its performance budget:" + failures);
+        }
+    }
+
+    private static StringBuilder appendIfExceeded(StringBuilder failures, String name, long count, long max) {
+        if (max < 0 || count <= max) return failures;
+
+        if (failures == null) failures = new StringBuilder();
+
+        failures.append("\n  ").append(name).append(": ").append(count).append(" > ").append(max);
+        return failures;
+    }
+}
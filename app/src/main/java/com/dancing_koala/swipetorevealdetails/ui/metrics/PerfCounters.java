@@ -0,0 +1,92 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+/**
+ * Counts the expensive operations of the hot paths: measure and layout passes of the cards,
+ * layout inflations, view lookups and allocated bytes. The platform has no allocation counter
+ * usable on every API level, the allocated bytes are reported by the test harness measuring
+ * them. Counting is disabled by default and costs a single
+ * field read per operation; it is meant to be enabled by instrumented or JVM test runs,
+ * which then check the counts against a {@link PerfBudget}.
+ * Must only be used from the main thread.
+ */
+public final class PerfCounters {
+
+    private static boolean enabled;
+
+    private static int measurePasses;
+    private static int layoutPasses;
+    private static int inflations;
+    private static int viewLookups;
+    private static long allocatedBytes;
+
+    private PerfCounters() {
+    }
+
+    /**
+     * Enables or disables the counting, the counts being reset either way
+     *
+     * @param enabled Self-explanatory
+     */
+    public static void setEnabled(boolean enabled) {
+        PerfCounters.enabled = enabled;
+        reset();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets every count back to 0, typically before each swipe or page flip
+     */
+    public static void reset() {
+        measurePasses = 0;
+        layoutPasses = 0;
+        inflations = 0;
+        viewLookups = 0;
+        allocatedBytes = 0;
+    }
+
+    public static void countMeasure() {
+        if (enabled) measurePasses++;
+    }
+
+    public static void countLayout() {
+        if (enabled) layoutPasses++;
+    }
+
+    public static void countInflation() {
+        if (enabled) inflations++;
+    }
+
+    public static void countViewLookup() {
+        if (enabled) viewLookups++;
+    }
+
+    /**
+     * @param bytes count of bytes allocated by the main thread, measured by the caller
+     */
+    public static void countAllocatedBytes(long bytes) {
+        if (enabled) allocatedBytes += bytes;
+    }
+
+    public static int getMeasurePasses() {
+        return measurePasses;
+    }
+
+    public static int getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    public static int getInflations() {
+        return inflations;
+    }
+
+    public static int getViewLookups() {
+        return viewLookups;
+    }
+
+    public static long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
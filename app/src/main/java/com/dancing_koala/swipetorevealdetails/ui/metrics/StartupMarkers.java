@@ -0,0 +1,81 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+import android.os.SystemClock;
+
+/**
+ * Times of the startup stages of the carousel screen, in the {@link SystemClock#uptimeMillis()}
+ * base: activity creation, first card drawn, and every neighbor card bound. Each marker is only
+ * set once, the first time it is reached. Must only be used from the main thread.
+ */
+public class StartupMarkers {
+
+    /**
+     * Receives the markers as they are reached
+     */
+    public interface Listener {
+        /**
+         * @param markers Self-explanatory
+         * @param marker  marker reached, one of the MARKER_ constants
+         */
+        void onStartupMarker(StartupMarkers markers, int marker);
+    }
+
+    public static final int
+            MARKER_ACTIVITY_CREATE = 0,
+            MARKER_FIRST_CARD_DRAWN = 1,
+            MARKER_NEIGHBORS_READY = 2;
+
+    private final long[] times;
+    private Listener listener;
+
+    public StartupMarkers() {
+        times = new long[MARKER_NEIGHBORS_READY + 1];
+    }
+
+    /**
+     * @param listener receiver of the markers, null to stop receiving them
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets a marker to the current time, unless it is already set
+     *
+     * @param marker one of the MARKER_ constants
+     */
+    public void mark(int marker) {
+        if (times[marker] != 0) return;
+
+        times[marker] = SystemClock.uptimeMillis();
+
+        if (listener != null) listener.onStartupMarker(this, marker);
+    }
+
+    /**
+     * @param marker one of the MARKER_ constants
+     * @return the time the marker was reached, 0 if not reached yet
+     */
+    public long getTime(int marker) {
+        return times[marker];
+    }
+
+    /**
+     * @return the time from the activity creation to the first card drawn, -1 if either is unknown
+     */
+    public long getTimeToFirstCard() {
+        return getDuration(MARKER_ACTIVITY_CREATE, MARKER_FIRST_CARD_DRAWN);
+    }
+
+    /**
+     * @return the time from the activity creation to every neighbor being ready, -1 if either is
+     * unknown
+     */
+    public long getTimeToNeighborsReady() {
+        return getDuration(MARKER_ACTIVITY_CREATE, MARKER_NEIGHBORS_READY);
+    }
+
+    private long getDuration(int from, int to) {
+        return times[from] != 0 && times[to] != 0 ? times[to] - times[from] : -1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+/**
+ * Metrics of a single swipe gesture, from the touch down to the end of the settle.
+ * Instances are reused from one gesture to the next.
+ */
+public class SwipeMetrics {
+
+    /**
+     * Touch down time of the gesture, in the {@link android.os.SystemClock#uptimeMillis()} base
+     */
+    long downTime;
+
+    /**
+     * Frames rendered while dragging and while settling
+     */
+    int dragFrames;
+    int settleFrames;
+
+    /**
+     * Frames that should have been rendered during the gesture but were skipped
+     */
+    int droppedFrames;
+
+    /**
+     * Delay between a touch event and the frame applying it, in milliseconds
+     */
+    float averageInputLatency;
+    float maxInputLatency;
+
+    /**
+     * Durations of the drag and of the settle, in milliseconds
+     */
+    float dragDuration;
+    float settleDuration;
+
+    /**
+     * Whether the card ended open, and whether the gesture was interrupted before settling
+     */
+    boolean opened;
+    boolean interrupted;
+
+    public long getDownTime() {
+        return downTime;
+    }
+
+    public int getDragFrames() {
+        return dragFrames;
+    }
+
+    public int getSettleFrames() {
+        return settleFrames;
+    }
+
+    public int getFramesRendered() {
+        return dragFrames + settleFrames;
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public float getAverageInputLatency() {
+        return averageInputLatency;
+    }
+
+    public float getMaxInputLatency() {
+        return maxInputLatency;
+    }
+
+    public float getDragDuration() {
+        return dragDuration;
+    }
+
+    public float getSettleDuration() {
+        return settleDuration;
+    }
+
+    public boolean isOpened() {
+        return opened;
+    }
+
+    public boolean isInterrupted() {
+        return interrupted;
+    }
+}
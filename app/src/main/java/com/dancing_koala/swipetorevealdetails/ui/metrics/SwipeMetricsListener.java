@@ -0,0 +1,15 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+/**
+ * Receives the metrics of each swipe gesture of a SwipeToRevealLayout
+ */
+public interface SwipeMetricsListener {
+
+    /**
+     * Called on the main thread once a gesture has settled, or has been interrupted.
+     * The metrics instance is reused for the next gesture and must not be kept.
+     *
+     * @param metrics metrics of the gesture
+     */
+    void onSwipeMetrics(SwipeMetrics metrics);
+}
@@ -0,0 +1,156 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+import android.view.Choreographer;
+
+/**
+ * Records the metrics of the swipe gestures and reports them to a {@link SwipeMetricsListener}.
+ * Frames are counted through Choreographer frame callbacks posted for the duration of a gesture
+ * only. Everything is preallocated so that recording can stay enabled in release builds.
+ * Must be created and used on the main thread.
+ */
+public class SwipeMetricsRecorder implements Choreographer.FrameCallback {
+
+    private static final float NANOS_PER_MILLI = 1000000f;
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private static final int
+            PHASE_IDLE = 0,
+            PHASE_DRAG = 1,
+            PHASE_SETTLE = 2;
+
+    private final Choreographer choreographer;
+    private final SwipeMetricsListener listener;
+    private final SwipeMetrics metrics;
+
+    private int phase;
+    private long frameIntervalNanos;
+    private long lastFrameTimeNanos;
+    private long downTimeNanos;
+    private long releaseTimeNanos;
+    private int latencySamples;
+    private float latencySum;
+
+    /**
+     * @param listener receiver of the metrics
+     */
+    public SwipeMetricsRecorder(SwipeMetricsListener listener) {
+        this.listener = listener;
+        metrics = new SwipeMetrics();
+        choreographer = Choreographer.getInstance();
+        setRefreshRate(DEFAULT_REFRESH_RATE);
+    }
+
+    /**
+     * @param refreshRate refresh rate of the display, used to detect dropped frames
+     */
+    public void setRefreshRate(float refreshRate) {
+        frameIntervalNanos = (long) (1e9f / (refreshRate > 0 ? refreshRate : DEFAULT_REFRESH_RATE));
+    }
+
+    /**
+     * Starts recording a gesture, reporting the previous one as interrupted if it was not over
+     *
+     * @param downTime touch down time, in the uptime base
+     */
+    public void onGestureStart(long downTime) {
+        if (phase != PHASE_IDLE) onGestureEnd(false, true);
+
+        phase = PHASE_DRAG;
+        downTimeNanos = downTime * 1000000L;
+        releaseTimeNanos = 0;
+        lastFrameTimeNanos = 0;
+        latencySamples = 0;
+        latencySum = 0f;
+
+        metrics.downTime = downTime;
+        metrics.dragFrames = 0;
+        metrics.settleFrames = 0;
+        metrics.droppedFrames = 0;
+        metrics.maxInputLatency = 0f;
+
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Records the latency between a touch event and the frame that applied it
+     *
+     * @param frameTimeNanos time of the frame, in the System.nanoTime() base
+     * @param eventTime      time of the oldest event applied by the frame, in the uptime base
+     */
+    public void onInputApplied(long frameTimeNanos, long eventTime) {
+        if (phase == PHASE_IDLE) return;
+
+        float latency = Math.max(0f, (frameTimeNanos - eventTime * 1000000L) / NANOS_PER_MILLI);
+
+        latencySum += latency;
+        latencySamples++;
+        if (latency > metrics.maxInputLatency) metrics.maxInputLatency = latency;
+    }
+
+    /**
+     * Ends the drag phase
+     *
+     * @param releaseTime release time, in the uptime base
+     * @param settling    whether a settle follows, the gesture ending otherwise
+     * @param opened      whether the card is open, when no settle follows
+     */
+    public void onRelease(long releaseTime, boolean settling, boolean opened) {
+        if (phase != PHASE_DRAG) return;
+
+        releaseTimeNanos = releaseTime * 1000000L;
+
+        if (settling) {
+            phase = PHASE_SETTLE;
+        } else {
+            onGestureEnd(opened, false);
+        }
+    }
+
+    /**
+     * Ends the gesture and reports its metrics
+     *
+     * @param opened      whether the card ended open
+     * @param interrupted whether the gesture ended before settling
+     */
+    public void onGestureEnd(boolean opened, boolean interrupted) {
+        if (phase == PHASE_IDLE) return;
+
+        final long endTimeNanos = System.nanoTime();
+
+        if (releaseTimeNanos == 0) releaseTimeNanos = endTimeNanos;
+
+        phase = PHASE_IDLE;
+        choreographer.removeFrameCallback(this);
+
+        metrics.averageInputLatency = latencySamples > 0 ? latencySum / latencySamples : 0f;
+        metrics.dragDuration = Math.max(0f, (releaseTimeNanos - downTimeNanos) / NANOS_PER_MILLI);
+        metrics.settleDuration = Math.max(0f, (endTimeNanos - releaseTimeNanos) / NANOS_PER_MILLI);
+        metrics.opened = opened;
+        metrics.interrupted = interrupted;
+
+        listener.onSwipeMetrics(metrics);
+    }
+
+    /**
+     * @see Choreographer.FrameCallback#doFrame(long)
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (phase == PHASE_IDLE) return;
+
+        if (phase == PHASE_DRAG) {
+            metrics.dragFrames++;
+        } else {
+            metrics.settleFrames++;
+        }
+
+        if (lastFrameTimeNanos != 0) {
+            // More than one interval between two frames means that vsyncs were missed
+            long missed = (frameTimeNanos - lastFrameTimeNanos + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            if (missed > 0) metrics.droppedFrames += missed;
+        }
+
+        lastFrameTimeNanos = frameTimeNanos;
+        choreographer.postFrameCallback(this);
+    }
+}
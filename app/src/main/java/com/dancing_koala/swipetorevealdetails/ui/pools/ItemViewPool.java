@@ -0,0 +1,230 @@
+package com.dancing_koala.swipetorevealdetails.ui.pools;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfCounters;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool of detached item views, keyed by the layout they were inflated from.
+ * Views given back to the pool are reset and handed out again instead of inflating a new tree.
+ * The pool can also be warmed up ahead of time, the items being inflated off the main thread.
+ * Views the pool lets go of, or keeps while the UI is hidden, are reported to its
+ * {@link OnScrapListener}, so that whatever they still hold on to can be released.
+ */
+public class ItemViewPool implements AsyncLayoutInflater.OnInflateFinishedListener {
+
+    private static final int DEFAULT_MAX_SCRAP_PER_LAYOUT = 4;
+
+    private final Context context;
+    private final int maxScrapPerLayout;
+
+    /**
+     * Detached views waiting to be reused, one heap per layout resource ID
+     */
+    private final SparseArray<ArrayDeque<View>> scrapHeaps;
+
+    /**
+     * Inflater used to warm up the pool, created on first use
+     */
+    private AsyncLayoutInflater asyncLayoutInflater;
+
+    private OnScrapListener onScrapListener;
+
+    /**
+     * Listener notified when the pooled views should free what they hold
+     */
+    public interface OnScrapListener {
+        /**
+         * Called when the pool drops a view instead of keeping it for reuse
+         *
+         * @param view detached view that will not be handed out anymore
+         */
+        void onScrapDropped(View view);
+
+        /**
+         * Called for each pooled view when the memory is trimmed with the UI hidden
+         *
+         * @param view detached view kept for reuse
+         */
+        void onScrapTrimmed(View view);
+    }
+
+    /**
+     * @param context Context used to inflate the views
+     */
+    public ItemViewPool(Context context) {
+        this(context, DEFAULT_MAX_SCRAP_PER_LAYOUT);
+    }
+
+    /**
+     * @param context           Context used to inflate the views
+     * @param maxScrapPerLayout maximum count of detached views kept for each layout
+     */
+    public ItemViewPool(Context context, int maxScrapPerLayout) {
+        this.context = context;
+        this.maxScrapPerLayout = maxScrapPerLayout;
+        scrapHeaps = new SparseArray<>();
+    }
+
+    public void setOnScrapListener(OnScrapListener onScrapListener) {
+        this.onScrapListener = onScrapListener;
+    }
+
+    /**
+     * Gives a view built from the layout, reused from the pool when possible.
+     *
+     * @param layoutID layout resource ID of the item
+     * @return a detached view ready to be bound
+     */
+    public View acquire(int layoutID) {
+        ArrayDeque<View> heap = scrapHeaps.get(layoutID);
+
+        if (heap != null && !heap.isEmpty()) {
+            return heap.pop();
+        }
+
+        View view = View.inflate(context, layoutID, null);
+        PerfCounters.countInflation();
+        view.setTag(R.id.strd_tag_pool_layout, layoutID);
+        return view;
+    }
+
+    /**
+     * Starts inflating items off the main thread so that the heap of the layout holds up to
+     * the given count of views. Must be called from the main thread, typically while the
+     * activity is starting. Items are added to the pool as soon as they are ready,
+     * {@link #acquire(int)} still inflates synchronously when the pool is empty.
+     *
+     * @param layoutID layout resource ID of the item
+     * @param count    wanted count of ready-to-use views
+     */
+    public void prewarm(int layoutID, int count) {
+        ArrayDeque<View> heap = scrapHeaps.get(layoutID);
+        int missing = Math.min(count, maxScrapPerLayout) - (heap != null ? heap.size() : 0);
+
+        if (missing <= 0) return;
+
+        if (asyncLayoutInflater == null) {
+            asyncLayoutInflater = new AsyncLayoutInflater(context);
+        }
+
+        for (int i = 0; i < missing; i++) {
+            asyncLayoutInflater.inflate(layoutID, null, this);
+        }
+    }
+
+    /**
+     * @see AsyncLayoutInflater.OnInflateFinishedListener#onInflateFinished(View, int, ViewGroup)
+     */
+    @Override
+    public void onInflateFinished(View view, int resid, ViewGroup parent) {
+        PerfCounters.countInflation();
+        view.setTag(R.id.strd_tag_pool_layout, resid);
+        release(view);
+    }
+
+    /**
+     * Gives a detached view back to the pool. Views not acquired from a pool or exceeding
+     * the heap capacity are dropped.
+     *
+     * @param view view removed from its parent
+     */
+    public void release(View view) {
+        Object layoutTag = view.getTag(R.id.strd_tag_pool_layout);
+
+        if (!(layoutTag instanceof Integer)) return;
+
+        int layoutID = (Integer) layoutTag;
+        ArrayDeque<View> heap = scrapHeaps.get(layoutID);
+
+        if (heap == null) {
+            heap = new ArrayDeque<>(maxScrapPerLayout);
+            scrapHeaps.put(layoutID, heap);
+        }
+
+        if (heap.size() >= maxScrapPerLayout) {
+            dispatchScrapDropped(view);
+            return;
+        }
+
+        if (view instanceof SwipeToRevealLayout) {
+            ((SwipeToRevealLayout) view).resetSwipeState();
+        }
+
+        heap.push(view);
+    }
+
+    /**
+     * Frees memory depending on the trim level: pooled cards lose their back view content and
+     * the heaps are halved while the app runs low on memory, everything is dropped once it is
+     * in the background. Hiding the UI keeps the pool, the listener being asked to free what
+     * the pooled views hold.
+     *
+     * @param level trim level given to {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public void trimMemory(int level) {
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                clear();
+                return;
+
+            case ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN:
+                if (onScrapListener == null) return;
+
+                for (int i = 0; i < scrapHeaps.size(); i++) {
+                    for (View view : scrapHeaps.valueAt(i)) {
+                        onScrapListener.onScrapTrimmed(view);
+                    }
+                }
+                return;
+
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+                break;
+
+            default:
+                return;
+        }
+
+        for (int i = 0; i < scrapHeaps.size(); i++) {
+            ArrayDeque<View> heap = scrapHeaps.valueAt(i);
+
+            // The views released the longest time ago go first
+            while (heap.size() > maxScrapPerLayout / 2) {
+                dispatchScrapDropped(heap.removeLast());
+            }
+
+            for (View view : heap) {
+                if (view instanceof SwipeToRevealLayout) ((SwipeToRevealLayout) view).releaseBackView();
+            }
+        }
+    }
+
+    /**
+     * Drops every pooled view
+     */
+    public void clear() {
+        for (int i = 0; i < scrapHeaps.size(); i++) {
+            for (View view : scrapHeaps.valueAt(i)) {
+                dispatchScrapDropped(view);
+            }
+        }
+
+        scrapHeaps.clear();
+    }
+
+    private void dispatchScrapDropped(View view) {
+        if (onScrapListener != null) onScrapListener.onScrapDropped(view);
+    }
+}
@@ -0,0 +1,121 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Records touch events, with their historical samples and pointers, into a
+ * {@link GestureTrace}. Events are encoded as they arrive, nothing is kept from them.
+ * Recording stops by itself once the trace reaches its maximum size.
+ * Must be used from the main thread.
+ */
+public class GestureRecorder {
+
+    private static final int DEFAULT_MAX_SIZE = 256 * 1024;
+
+    private final int maxSize;
+    private final ByteArrayOutputStream buffer;
+    private final DataOutputStream out;
+
+    private long startTime;
+    private boolean started;
+
+    public GestureRecorder() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum size of the trace, in bytes
+     */
+    public GestureRecorder(int maxSize) {
+        this.maxSize = maxSize;
+        buffer = new ByteArrayOutputStream();
+        out = new DataOutputStream(buffer);
+    }
+
+    /**
+     * Appends an event to the trace. The first event recorded is expected to be a touch down.
+     *
+     * @param event touch event
+     */
+    public void record(MotionEvent event) {
+        if (buffer.size() >= maxSize) return;
+
+        try {
+            if (!started) {
+                started = true;
+                startTime = event.getDownTime();
+                GestureTrace.writeHeader(out, startTime);
+            }
+
+            writeEvent(event);
+        } catch (IOException e) {
+            // Not thrown when writing to memory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeEvent(MotionEvent event) throws IOException {
+        final int pointerCount = event.getPointerCount();
+        final int historySize = event.getHistorySize();
+
+        // The raw coordinates are only known for the first pointer, but all are offset alike
+        final float offsetX = event.getRawX() - event.getX();
+        final float offsetY = event.getRawY() - event.getY();
+
+        out.writeByte(event.getActionMasked());
+        out.writeByte(event.getActionIndex());
+        out.writeInt((int) (event.getDownTime() - startTime));
+        out.writeByte(pointerCount);
+
+        for (int p = 0; p < pointerCount; p++) {
+            out.writeByte(event.getPointerId(p));
+            out.writeByte(event.getToolType(p));
+        }
+
+        out.writeShort(historySize + 1);
+
+        for (int h = 0; h < historySize; h++) {
+            out.writeInt((int) (event.getHistoricalEventTime(h) - startTime));
+
+            for (int p = 0; p < pointerCount; p++) {
+                out.writeFloat(event.getHistoricalX(p, h) + offsetX);
+                out.writeFloat(event.getHistoricalY(p, h) + offsetY);
+                out.writeFloat(event.getHistoricalPressure(p, h));
+            }
+        }
+
+        out.writeInt((int) (event.getEventTime() - startTime));
+
+        for (int p = 0; p < pointerCount; p++) {
+            out.writeFloat(event.getX(p) + offsetX);
+            out.writeFloat(event.getY(p) + offsetY);
+            out.writeFloat(event.getPressure(p));
+        }
+    }
+
+    /**
+     * @return true when the maximum size has been reached and events are dropped
+     */
+    public boolean isFull() {
+        return buffer.size() >= maxSize;
+    }
+
+    /**
+     * @return the events recorded so far, null if none
+     */
+    public GestureTrace toTrace() {
+        return started ? new GestureTrace(buffer.toByteArray()) : null;
+    }
+
+    /**
+     * Drops the recorded events
+     */
+    public void reset() {
+        buffer.reset();
+        started = false;
+    }
+}
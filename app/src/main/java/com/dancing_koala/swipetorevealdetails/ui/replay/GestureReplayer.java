@@ -0,0 +1,145 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Replays a {@link GestureTrace} against a {@link SwipeToRevealLayout}, the events being handed
+ * to its front view's touch listener. The drag and settle are paced by a {@link VirtualFrameClock}
+ * following the recorded event times, so that a given trace always gives the same frames and
+ * settle decisions, on a device or in JVM tests.
+ * Must be used from the main thread.
+ */
+public class GestureReplayer {
+
+    /**
+     * Frames run after the last event at most, waiting for the settle to end
+     */
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final GestureTrace trace;
+    private final long frameIntervalNanos;
+
+    /**
+     * @param trace recorded events
+     */
+    public GestureReplayer(GestureTrace trace) {
+        this(trace, VirtualFrameClock.DEFAULT_FRAME_INTERVAL_NANOS);
+    }
+
+    /**
+     * @param trace              recorded events
+     * @param frameIntervalNanos time between two virtual frames
+     */
+    public GestureReplayer(GestureTrace trace, long frameIntervalNanos) {
+        this.trace = trace;
+        this.frameIntervalNanos = frameIntervalNanos;
+    }
+
+    /**
+     * Replays every event of the trace then lets the card settle. The layout gets the
+     * Choreographer back once done.
+     *
+     * @param layout target layout, attached or not
+     * @return the outcome of the replay
+     * @throws IOException when the trace is truncated
+     */
+    public ReplayResult replay(SwipeToRevealLayout layout) throws IOException {
+        final long startTime = trace.getStartTime();
+        final VirtualFrameClock clock = new VirtualFrameClock(startTime * NANOS_PER_MILLI, frameIntervalNanos);
+        final DataInputStream in = trace.openEvents();
+
+        long[] costs = new long[64];
+        int eventCount = 0;
+
+        layout.resetSwipeState();
+        layout.setFrameClock(clock);
+
+        try {
+            while (in.available() > 0) {
+                MotionEvent event = readEvent(in, startTime);
+
+                // Frames due before the event run first, as they would have on the device
+                clock.advanceTo(event.getEventTime() * NANOS_PER_MILLI);
+
+                final long before = System.nanoTime();
+                layout.dispatchFrontViewTouchEvent(event);
+                final long cost = System.nanoTime() - before;
+
+                event.recycle();
+
+                if (eventCount == costs.length) {
+                    long[] grown = new long[costs.length * 2];
+                    System.arraycopy(costs, 0, grown, 0, costs.length);
+                    costs = grown;
+                }
+
+                costs[eventCount++] = cost;
+            }
+
+            final boolean settled = clock.runUntilIdle(MAX_SETTLE_FRAMES);
+
+            long[] eventCosts = new long[eventCount];
+            System.arraycopy(costs, 0, eventCosts, 0, eventCount);
+
+            return new ReplayResult(eventCosts, clock.getFrameCount(), layout.getRevealOffset(), settled);
+        } finally {
+            layout.setFrameClock(null);
+        }
+    }
+
+    /**
+     * Decodes the next event, its coordinates being the recorded screen coordinates
+     */
+    private static MotionEvent readEvent(DataInputStream in, long startTime) throws IOException {
+        final int actionMasked = in.readByte();
+        final int actionIndex = in.readByte();
+        final long downTime = startTime + in.readInt();
+        final int pointerCount = in.readByte();
+
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = in.readByte();
+            properties[p].toolType = in.readByte();
+            coords[p] = new MotionEvent.PointerCoords();
+        }
+
+        final int sampleCount = in.readShort();
+        final int action = actionMasked | (actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+
+        MotionEvent event = null;
+
+        // The first sample creates the event, the next ones, up to the current one, are batched
+        for (int s = 0; s < sampleCount; s++) {
+            final long eventTime = startTime + in.readInt();
+
+            for (int p = 0; p < pointerCount; p++) {
+                coords[p].x = in.readFloat();
+                coords[p].y = in.readFloat();
+                coords[p].pressure = in.readFloat();
+                coords[p].size = 1f;
+            }
+
+            if (event == null) {
+                event = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+                        0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+            } else {
+                event.addBatch(eventTime, coords, 0);
+            }
+        }
+
+        if (event == null) throw new IOException("Gesture trace event without sample");
+
+        return event;
+    }
+}
@@ -0,0 +1,122 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Touch events recorded by a {@link GestureRecorder}, in a compact binary format:
+ * <pre>
+ * header : int magic, byte version, long start time (uptime, ms)
+ * event  : byte masked action, byte action pointer index, int down time delta (ms),
+ *          byte pointer count, pointer count * (byte id, byte tool type),
+ *          short sample count, sample count * sample
+ * sample : int time delta (ms), pointer count * (float raw x, float raw y, float pressure)
+ * </pre>
+ * Times are relative to the start time. The historical samples of each event come first, its
+ * current sample last. Coordinates are screen coordinates, so that a trace does not depend on
+ * where the view was when it was recorded.
+ */
+public class GestureTrace {
+
+    static final int MAGIC = 0x53545254;
+    static final byte VERSION = 1;
+
+    /**
+     * Length of the header, in bytes
+     */
+    static final int HEADER_SIZE = 4 + 1 + 8;
+
+    private final byte[] data;
+
+    /**
+     * @param data encoded trace, header included
+     */
+    GestureTrace(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Reads a trace written by {@link #writeTo(OutputStream)}
+     *
+     * @param in Self-explanatory, not closed
+     * @return the trace
+     * @throws IOException when the stream fails or does not hold a trace of a known version
+     */
+    public static GestureTrace readFrom(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+
+        GestureTrace trace = new GestureTrace(buffer.toByteArray());
+        trace.checkHeader();
+        return trace;
+    }
+
+    /**
+     * @param out Self-explanatory, not closed
+     * @throws IOException when the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(data);
+    }
+
+    /**
+     * @return a stream reading the encoded events, the header already read
+     * @throws IOException when the stream fails
+     */
+    DataInputStream openEvents() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.skipBytes(HEADER_SIZE);
+        return in;
+    }
+
+    /**
+     * @return the uptime of the first recorded event, in milliseconds
+     */
+    public long getStartTime() {
+        long startTime = 0;
+
+        for (int i = 5; i < HEADER_SIZE; i++) {
+            startTime = (startTime << 8) | (data[i] & 0xFF);
+        }
+
+        return startTime;
+    }
+
+    /**
+     * @return size of the encoded trace, in bytes
+     */
+    public int getSize() {
+        return data.length;
+    }
+
+    private void checkHeader() throws IOException {
+        if (data.length < HEADER_SIZE) throw new IOException("Truncated gesture trace");
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (in.readInt() != MAGIC) throw new IOException("Not a gesture trace");
+
+        byte version = in.readByte();
+
+        if (version != VERSION) throw new IOException("Unsupported gesture trace version " + version);
+    }
+
+    /**
+     * Writes the header of a trace
+     */
+    static void writeHeader(DataOutputStream out, long startTime) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(startTime);
+    }
+}
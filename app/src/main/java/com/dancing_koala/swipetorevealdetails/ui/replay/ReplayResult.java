@@ -0,0 +1,105 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+/**
+ * Outcome of a {@link GestureReplayer} run, to be compared between builds
+ */
+public class ReplayResult {
+
+    private final long[] eventCostsNanos;
+    private final int frameCount;
+    private final float finalRevealOffset;
+    private final boolean settled;
+
+    ReplayResult(long[] eventCostsNanos, int frameCount, float finalRevealOffset, boolean settled) {
+        this.eventCostsNanos = eventCostsNanos;
+        this.frameCount = frameCount;
+        this.finalRevealOffset = finalRevealOffset;
+        this.settled = settled;
+    }
+
+    /**
+     * @return wall time spent handling each replayed event, in nanoseconds, in the trace order
+     */
+    public long[] getEventCostsNanos() {
+        return eventCostsNanos;
+    }
+
+    public int getEventCount() {
+        return eventCostsNanos.length;
+    }
+
+    /**
+     * @return wall time spent handling all the replayed events, in nanoseconds
+     */
+    public long getTotalEventCostNanos() {
+        long total = 0;
+
+        for (long cost : eventCostsNanos) {
+            total += cost;
+        }
+
+        return total;
+    }
+
+    /**
+     * @return count of virtual frames that ran drag or settle work
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return reveal offset the card rests at once the replay is over
+     */
+    public float getFinalRevealOffset() {
+        return finalRevealOffset;
+    }
+
+    /**
+     * @return false when the card was still animating after the maximum count of frames
+     */
+    public boolean isSettled() {
+        return settled;
+    }
+
+    /**
+     * Two results are equal when both replays took the same decisions: same count of events and
+     * frames, same final offset and settle state. The wall time costs vary from run to run and
+     * are left out.
+     *
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReplayResult)) return false;
+
+        ReplayResult other = (ReplayResult) o;
+
+        return eventCostsNanos.length == other.eventCostsNanos.length
+                && frameCount == other.frameCount
+                && Float.compare(finalRevealOffset, other.finalRevealOffset) == 0
+                && settled == other.settled;
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        int result = eventCostsNanos.length;
+        result = 31 * result + frameCount;
+        result = 31 * result + Float.floatToIntBits(finalRevealOffset);
+        result = 31 * result + (settled ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "ReplayResult{events=" + eventCostsNanos.length + ", frames=" + frameCount
+                + ", finalRevealOffset=" + finalRevealOffset + ", settled=" + settled + "}";
+    }
+}
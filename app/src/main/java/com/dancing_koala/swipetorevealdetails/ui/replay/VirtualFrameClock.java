@@ -0,0 +1,120 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+import android.view.Choreographer;
+
+import com.dancing_koala.swipetorevealdetails.ui.animations.FrameClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link FrameClock} whose frames only happen when it is advanced, on a fixed grid of frame
+ * times, so that animations run the same way on every replay whatever the speed of the device.
+ */
+public class VirtualFrameClock implements FrameClock {
+
+    public static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private final long frameIntervalNanos;
+    private final List<Choreographer.FrameCallback> callbacks;
+    private final List<Choreographer.FrameCallback> runningCallbacks;
+
+    private long nextFrameTimeNanos;
+    private int frameCount;
+
+    /**
+     * @param startTimeNanos time of the first frame
+     */
+    public VirtualFrameClock(long startTimeNanos) {
+        this(startTimeNanos, DEFAULT_FRAME_INTERVAL_NANOS);
+    }
+
+    /**
+     * @param startTimeNanos     time of the first frame
+     * @param frameIntervalNanos time between two frames
+     */
+    public VirtualFrameClock(long startTimeNanos, long frameIntervalNanos) {
+        this.frameIntervalNanos = frameIntervalNanos;
+        nextFrameTimeNanos = startTimeNanos;
+        callbacks = new ArrayList<>();
+        runningCallbacks = new ArrayList<>();
+    }
+
+    /**
+     * @see FrameClock#postFrameCallback(Choreographer.FrameCallback)
+     */
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+        callbacks.add(callback);
+    }
+
+    /**
+     * @see FrameClock#removeFrameCallback(Choreographer.FrameCallback)
+     */
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        // Every occurrence is removed, as the Choreographer does
+        callbacks.removeAll(Collections.singleton(callback));
+    }
+
+    /**
+     * Runs every frame due up to the given time included
+     *
+     * @param timeNanos Self-explanatory
+     */
+    public void advanceTo(long timeNanos) {
+        while (nextFrameTimeNanos <= timeNanos) {
+            runFrame();
+        }
+    }
+
+    /**
+     * Runs frames until no callback is pending
+     *
+     * @param maxFrames maximum count of frames to run, for animations that never end
+     * @return true if no callback is pending anymore
+     */
+    public boolean runUntilIdle(int maxFrames) {
+        for (int i = 0; i < maxFrames && !callbacks.isEmpty(); i++) {
+            runFrame();
+        }
+
+        return callbacks.isEmpty();
+    }
+
+    /**
+     * Runs the callbacks posted before this frame, those they post running on the next one
+     */
+    private void runFrame() {
+        final long frameTimeNanos = nextFrameTimeNanos;
+
+        nextFrameTimeNanos += frameIntervalNanos;
+
+        if (callbacks.isEmpty()) return;
+
+        frameCount++;
+        runningCallbacks.addAll(callbacks);
+        callbacks.clear();
+
+        for (int i = 0; i < runningCallbacks.size(); i++) {
+            runningCallbacks.get(i).doFrame(frameTimeNanos);
+        }
+
+        runningCallbacks.clear();
+    }
+
+    /**
+     * @return time of the next frame
+     */
+    public long getNextFrameTimeNanos() {
+        return nextFrameTimeNanos;
+    }
+
+    /**
+     * @return count of frames that ran at least one callback
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+}
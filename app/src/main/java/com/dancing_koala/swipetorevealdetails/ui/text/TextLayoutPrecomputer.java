@@ -0,0 +1,148 @@
+package com.dancing_koala.swipetorevealdetails.ui.text;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.util.LongSparseArray;
+import android.support.v4.util.LruCache;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import com.dancing_koala.swipetorevealdetails.ui.views.TextLayoutView;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Lays out the texts of upcoming items on a background thread with the style of a
+ * {@link TextLayoutView}, and keeps the layouts per item ID until they are bound.
+ * Every public method must be called from the main thread.
+ */
+public class TextLayoutPrecomputer {
+
+    private static final int DEFAULT_MAX_LAYOUTS = 64;
+
+    /**
+     * Precomputed layout and the text it was built from
+     */
+    private static class Entry {
+        final CharSequence text;
+        final Layout layout;
+
+        Entry(CharSequence text, Layout layout) {
+            this.text = text;
+            this.layout = layout;
+        }
+    }
+
+    private final int width;
+    private final boolean allCaps;
+    private final Layout.Alignment alignment;
+    private final Handler mainHandler;
+    private final ExecutorService layoutExecutor;
+
+    /**
+     * Copy of the view's paint, only used by the layout thread
+     */
+    private final TextPaint layoutPaint;
+
+    /**
+     * Precomputed layouts keyed by item ID
+     */
+    private final LruCache<Long, Entry> layouts;
+
+    /**
+     * Texts being laid out, keyed by item ID
+     */
+    private final LongSparseArray<CharSequence> pending;
+
+    /**
+     * @param template view the texts are displayed by, giving their style
+     * @param width    width available for the texts, padding excluded
+     */
+    public TextLayoutPrecomputer(TextLayoutView template, int width) {
+        this.width = width;
+
+        allCaps = template.isAllCaps();
+        alignment = template.getAlignment();
+        layoutPaint = template.copyTextPaint();
+        layouts = new LruCache<>(DEFAULT_MAX_LAYOUTS);
+        pending = new LongSparseArray<>();
+        mainHandler = new Handler(Looper.getMainLooper());
+        layoutExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "TextLayoutPrecomputer");
+            }
+        });
+    }
+
+    /**
+     * Lays out the text of an item in the background, unless it is already done
+     *
+     * @param id   stable ID of the item
+     * @param text Self-explanatory
+     */
+    public void precompute(final long id, final CharSequence text) {
+        Entry entry = layouts.get(id);
+
+        if (entry != null && TextUtils.equals(entry.text, text)) return;
+        if (TextUtils.equals(pending.get(id), text)) return;
+
+        pending.put(id, text);
+
+        layoutExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Layout layout = TextLayoutView.buildLayout(TextLayoutView.transformText(text, allCaps), layoutPaint, width, alignment);
+                layouts.put(id, new Entry(text, layout));
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pending.get(id) == text) pending.remove(id);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Displays the text of an item, with its precomputed layout when ready
+     *
+     * @param view target view
+     * @param id   stable ID of the item
+     * @param text Self-explanatory
+     */
+    public void bind(TextLayoutView view, long id, CharSequence text) {
+        Entry entry = layouts.get(id);
+
+        if (entry != null && TextUtils.equals(entry.text, text)) {
+            view.setTextLayout(text, entry.layout);
+        } else {
+            view.setText(text);
+        }
+    }
+
+    /**
+     * Drops every precomputed layout
+     */
+    public void clear() {
+        layouts.evictAll();
+    }
+
+    /**
+     * Stops the background work, the precomputer cannot be used anymore
+     */
+    public void release() {
+        layoutExecutor.shutdownNow();
+    }
+}
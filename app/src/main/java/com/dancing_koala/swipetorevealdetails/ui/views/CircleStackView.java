@@ -0,0 +1,235 @@
+package com.dancing_koala.swipetorevealdetails.ui.views;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.v4.content.ContextCompat;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.dancing_koala.swipetorevealdetails.R;
+
+/**
+ * View displaying overlapping white stroked circles, as drawn by {@link CircleView}, followed by
+ * an optional icon aligned to the right. Everything is measured and drawn by this single view.
+ */
+public class CircleStackView extends View {
+
+    private static final int DEFAULT_CIRCLE_COUNT = 3;
+
+    /**
+     * circlePaints : Paints used to fill each circle
+     * strokePaints : Paints used to draw each circle's stroke
+     */
+    private Paint[] circlePaints, strokePaints;
+
+    /**
+     * Horizontal centers of the circles, computed when the size changes
+     */
+    private float[] centersX;
+
+    /**
+     * centerY      : vertical center of the circles
+     * radius       : radius of the circles
+     */
+    private float centerY, radius;
+
+    /**
+     * circleSize       : diameter of the circles when the height is not constrained
+     * circleOverlap    : width shared by two consecutive circles
+     */
+    private int circleSize, circleOverlap;
+
+    /**
+     * Icon drawn at the right, may be null
+     */
+    private Drawable trailingIcon;
+
+    /**
+     * @see View#View(Context)
+     */
+    public CircleStackView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet)
+     */
+    public CircleStackView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet, int)
+     */
+    public CircleStackView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet, int, int)
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public CircleStackView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        init(context, attrs);
+    }
+
+    /**
+     * Initializes the view fields
+     *
+     * @param context Instanciation context
+     * @param attrs   Style attribtutes
+     */
+    private void init(Context context, AttributeSet attrs) {
+        TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.CircleStackView);
+
+        int colorsID = ta.getResourceId(R.styleable.CircleStackView_circle_colors, -1);
+        int iconTint = ta.getColor(R.styleable.CircleStackView_trailing_icon_tint, Color.TRANSPARENT);
+
+        circleSize = ta.getDimensionPixelSize(R.styleable.CircleStackView_circle_size, 0);
+        circleOverlap = ta.getDimensionPixelSize(R.styleable.CircleStackView_circle_overlap, 0);
+        trailingIcon = ta.getDrawable(R.styleable.CircleStackView_trailing_icon);
+
+        ta.recycle();
+
+        int[] colors;
+
+        if (colorsID != -1) {
+            TypedArray colorsArray = getResources().obtainTypedArray(colorsID);
+            colors = new int[colorsArray.length()];
+
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = colorsArray.getColor(i, Color.parseColor(CircleView.DEFAULT_BG_COLOR));
+            }
+
+            colorsArray.recycle();
+        } else {
+            colors = new int[DEFAULT_CIRCLE_COUNT];
+
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = Color.parseColor(CircleView.DEFAULT_BG_COLOR);
+            }
+        }
+
+        if (trailingIcon != null) {
+            trailingIcon = trailingIcon.mutate();
+
+            if (iconTint != Color.TRANSPARENT) {
+                trailingIcon.setColorFilter(iconTint, PorterDuff.Mode.SRC_ATOP);
+            }
+        }
+
+        setCircleColors(colors);
+    }
+
+    /**
+     * Sets the circles to draw, one per color, from left to right
+     *
+     * @param colors fill colors of the circles
+     */
+    public void setCircleColors(int... colors) {
+        final boolean countChanged = circlePaints == null || circlePaints.length != colors.length;
+
+        if (countChanged) {
+            circlePaints = new Paint[colors.length];
+            strokePaints = new Paint[colors.length];
+            centersX = new float[colors.length];
+
+            for (int i = 0; i < colors.length; i++) {
+                circlePaints[i] = CircleView.createCirclePaint(colors[i]);
+                strokePaints[i] = CircleView.createStrokePaint(circlePaints[i]);
+            }
+
+            computeGeometry(getWidth(), getHeight());
+            requestLayout();
+        } else {
+            for (int i = 0; i < colors.length; i++) {
+                circlePaints[i].setColor(colors[i]);
+            }
+        }
+
+        invalidate();
+    }
+
+    /**
+     * Sets the icon drawn at the right of the view
+     *
+     * @param resID drawable resource ID, 0 to remove the icon
+     * @param tint  color applied to the icon, {@link Color#TRANSPARENT} to keep its colors
+     */
+    public void setTrailingIcon(int resID, int tint) {
+        trailingIcon = resID != 0 ? ContextCompat.getDrawable(getContext(), resID).mutate() : null;
+
+        if (trailingIcon != null && tint != Color.TRANSPARENT) {
+            trailingIcon.setColorFilter(tint, PorterDuff.Mode.SRC_ATOP);
+        }
+
+        computeGeometry(getWidth(), getHeight());
+        requestLayout();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int count = circlePaints.length;
+
+        int desiredHeight = circleSize + getPaddingTop() + getPaddingBottom();
+        int height = resolveSize(desiredHeight, heightMeasureSpec);
+        int diameter = circleSize > 0 ? circleSize : height - getPaddingTop() - getPaddingBottom();
+
+        int desiredWidth = count * diameter - Math.max(count - 1, 0) * circleOverlap;
+
+        if (trailingIcon != null) desiredWidth += diameter;
+
+        setMeasuredDimension(resolveSize(desiredWidth + getPaddingLeft() + getPaddingRight(), widthMeasureSpec), height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeGeometry(w, h);
+    }
+
+    /**
+     * Computes the circles centers and radius and the icon bounds for the given size
+     */
+    private void computeGeometry(int w, int h) {
+        final int contentHeight = h - getPaddingTop() - getPaddingBottom();
+        final int diameter = circleSize > 0 ? Math.min(circleSize, contentHeight) : contentHeight;
+
+        radius = diameter / 2f;
+        centerY = getPaddingTop() + contentHeight / 2f;
+
+        for (int i = 0; i < centersX.length; i++) {
+            centersX[i] = getPaddingLeft() + radius + i * (diameter - circleOverlap);
+        }
+
+        if (trailingIcon != null) {
+            int right = w - getPaddingRight();
+            int top = (int) (centerY - radius);
+            trailingIcon.setBounds(right - diameter, top, right, top + diameter);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        // Drawn from left to right, each circle overlapping the previous one
+        for (int i = 0; i < centersX.length; i++) {
+            CircleView.drawStrokedCircle(canvas, centersX[i], centerY, radius, circlePaints[i], strokePaints[i]);
+        }
+
+        if (trailingIcon != null) trailingIcon.draw(canvas);
+    }
+}
@@ -18,17 +18,18 @@ import android.view.View;
  */
 public class CircleView extends View {
 
-    private static final int DEFAULT_STROKE_WIDTH = 4;
+    static final int DEFAULT_STROKE_WIDTH = 4;
     /**
      * Default color for the circle
      */
-    private static final String DEFAULT_BG_COLOR = "#FF4081";
+    static final String DEFAULT_BG_COLOR = "#FF4081";
 
     /**
      * halfHeight   : half of the view's height
      * halfWidth    : half of the view's width
+     * radius       : radius of the circle
      */
-    private int halfHeight, halfWidth;
+    private int halfHeight, halfWidth, radius;
 
     /**
      * circlePaint  :   Paint used to draw the circle
@@ -91,39 +92,60 @@ public class CircleView extends View {
 
         setBackgroundColor(Color.TRANSPARENT);
 
-        circlePaint = new Paint();
-        circlePaint.setStrokeWidth(4);
+        circlePaint = createCirclePaint(color);
+        strokePaint = createStrokePaint(circlePaint);
+    }
+
+    /**
+     * @param color fill color of the circle
+     * @return the Paint used to fill a circle
+     */
+    static Paint createCirclePaint(int color) {
+        Paint circlePaint = new Paint();
+        circlePaint.setStrokeWidth(DEFAULT_STROKE_WIDTH);
         circlePaint.setAntiAlias(true);
         circlePaint.setStyle(Paint.Style.FILL);
         circlePaint.setColor(color);
+        return circlePaint;
+    }
 
-        strokePaint = new Paint(circlePaint);
+    /**
+     * @param circlePaint Paint used to fill the circle
+     * @return the Paint used to draw the circle's white stroke
+     */
+    static Paint createStrokePaint(Paint circlePaint) {
+        Paint strokePaint = new Paint(circlePaint);
         strokePaint.setStyle(Paint.Style.STROKE);
         strokePaint.setColor(Color.WHITE);
+        return strokePaint;
+    }
+
+    /**
+     * Draws a filled circle and its white stroke
+     *
+     * @param canvas      Self-explanatory
+     * @param cx          x coordinate of the center
+     * @param cy          y coordinate of the center
+     * @param radius      radius of the circle
+     * @param circlePaint Paint used to fill the circle
+     * @param strokePaint Paint used to draw the stroke
+     */
+    static void drawStrokedCircle(Canvas canvas, float cx, float cy, float radius, Paint circlePaint, Paint strokePaint) {
+        canvas.drawCircle(cx, cy, radius, circlePaint);
+        canvas.drawCircle(cx, cy, radius - DEFAULT_STROKE_WIDTH, strokePaint);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        canvas.drawCircle(
-                halfWidth,
-                halfHeight,
-                Math.min(halfWidth, halfHeight),
-                circlePaint
-        );
-
-        canvas.drawCircle(
-                halfWidth,
-                halfHeight,
-                Math.min(halfWidth, halfHeight) - DEFAULT_STROKE_WIDTH,
-                strokePaint
-        );
+        drawStrokedCircle(canvas, halfWidth, halfHeight, radius, circlePaint, strokePaint);
     }
 
     @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        halfHeight = getMeasuredHeight() / 2;
-        halfWidth = getMeasuredWidth() / 2;
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        halfHeight = h / 2;
+        halfWidth = w / 2;
+        radius = Math.min(halfWidth, halfHeight);
     }
 }
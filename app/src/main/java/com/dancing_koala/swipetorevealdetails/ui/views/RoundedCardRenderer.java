@@ -0,0 +1,310 @@
+package com.dancing_koala.swipetorevealdetails.ui.views;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+/**
+ * Gives the cards of a {@link SwipeToRevealLayout} their rounded corners and elevation without
+ * wrapping them into CardViews.
+ * From Lollipop, the views get a rounded outline, clipping and elevation, and the platform
+ * does the rest. Below, the parent draws them: a nine-slice shadow bitmap shared by every card,
+ * and for the clipped cards, a rounded clip path from Jelly Bean MR2, where the hardware renderer
+ * starts supporting it. On older versions, the corners are cut out of an offscreen layer with a
+ * shared corner mask. The cards are drawn as usual either way, nothing being rendered in software.
+ */
+class RoundedCardRenderer {
+
+    private static final int SHADOW_COLOR = 0x37000000;
+
+    /**
+     * Nine-slice shadow bitmap shared by the cards with the same corner radius and elevation,
+     * only used below Lollipop and only touched from the main thread
+     */
+    private static Bitmap sharedShadowBitmap;
+    private static int sharedShadowRadius;
+    private static int sharedShadowBlur;
+
+    /**
+     * Mask of the outside of the rounded corners shared by the cards with the same corner radius,
+     * only used below Jelly Bean MR2 and only touched from the main thread
+     */
+    private static Bitmap sharedCornerMask;
+    private static int sharedCornerMaskRadius;
+
+    private final float cornerRadius;
+    private final float elevation;
+
+    /**
+     * Fields below are only used below Lollipop, allocated once and reused on every frame
+     */
+    private Paint shadowPaint;
+    private RectF cardRect;
+    private Rect sliceSrc;
+    private Rect sliceDst;
+    private Paint maskPaint;
+
+    /**
+     * Rounded shape of the clipped card, only rebuilt when its size changes
+     */
+    private Path clipPath;
+    private int clipWidth;
+    private int clipHeight;
+
+    /**
+     * @param cornerRadius radius of the corners, in pixels
+     * @param elevation    elevation of the cards, in pixels
+     */
+    RoundedCardRenderer(float cornerRadius, float elevation) {
+        this.cornerRadius = cornerRadius;
+        this.elevation = elevation;
+
+        if (!isPlatformRendered()) {
+            shadowPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            cardRect = new RectF();
+            sliceSrc = new Rect();
+            sliceDst = new Rect();
+
+            if (isPathClipSupported()) {
+                clipPath = new Path();
+            } else {
+                maskPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+                maskPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_OUT));
+            }
+        }
+    }
+
+    /**
+     * @return true when the platform draws the outlines, clipping and shadows by itself
+     */
+    static boolean isPlatformRendered() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    /**
+     * @return true when clipping to a path is supported by the hardware renderer
+     */
+    private static boolean isPathClipSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Prepares a card view
+     *
+     * @param card        Self-explanatory
+     * @param clipContent whether the content has to be clipped to the rounded corners
+     */
+    void setUp(View card, boolean clipContent) {
+        if (isPlatformRendered()) setUpOutline(card, clipContent);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void setUpOutline(View card, boolean clipContent) {
+        card.setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                outline.setRoundRect(0, 0, view.getWidth(), view.getHeight(), cornerRadius);
+            }
+        });
+        card.setClipToOutline(clipContent);
+        card.setElevation(elevation);
+    }
+
+    /**
+     * Draws the shadow of a card, with its current transformation and alpha. Below Lollipop only.
+     *
+     * @param canvas parent's canvas
+     * @param card   Self-explanatory
+     */
+    void drawShadow(Canvas canvas, View card) {
+        if (elevation <= 0 || card.getAlpha() <= 0f || card.getVisibility() != View.VISIBLE) return;
+
+        final Bitmap shadow = getShadowBitmap();
+        final int corner = sharedShadowRadius + sharedShadowBlur;
+        final int size = shadow.getWidth();
+        final int blur = sharedShadowBlur;
+        final int offsetY = Math.round(elevation / 2f);
+
+        final int left = -blur;
+        final int top = -blur + offsetY;
+        final int right = card.getWidth() + blur;
+        final int bottom = card.getHeight() + blur + offsetY;
+
+        canvas.save();
+        applyTransformation(canvas, card);
+        shadowPaint.setAlpha((int) (card.getAlpha() * 255));
+
+        // Corners
+        drawSlice(canvas, shadow, shadowPaint, 0, 0, corner, corner, left, top, left + corner, top + corner);
+        drawSlice(canvas, shadow, shadowPaint, size - corner, 0, size, corner, right - corner, top, right, top + corner);
+        drawSlice(canvas, shadow, shadowPaint, 0, size - corner, corner, size, left, bottom - corner, left + corner, bottom);
+        drawSlice(canvas, shadow, shadowPaint, size - corner, size - corner, size, size, right - corner, bottom - corner, right, bottom);
+        // Edges, the middle pixel of the bitmap being stretched
+        drawSlice(canvas, shadow, shadowPaint, corner, 0, corner + 1, corner, left + corner, top, right - corner, top + corner);
+        drawSlice(canvas, shadow, shadowPaint, corner, size - corner, corner + 1, size, left + corner, bottom - corner, right - corner, bottom);
+        drawSlice(canvas, shadow, shadowPaint, 0, corner, corner, corner + 1, left, top + corner, left + corner, bottom - corner);
+        drawSlice(canvas, shadow, shadowPaint, size - corner, corner, size, corner + 1, right - corner, top + corner, right, bottom - corner);
+
+        canvas.restore();
+    }
+
+    private void drawSlice(Canvas canvas, Bitmap bitmap, Paint paint, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                           int dstLeft, int dstTop, int dstRight, int dstBottom) {
+        if (dstRight <= dstLeft || dstBottom <= dstTop) return;
+
+        sliceSrc.set(srcLeft, srcTop, srcRight, srcBottom);
+        sliceDst.set(dstLeft, dstTop, dstRight, dstBottom);
+        canvas.drawBitmap(bitmap, sliceSrc, sliceDst, paint);
+    }
+
+    /**
+     * Clips the canvas to the rounded shape of a card, with its current transformation, before
+     * the card is drawn as usual. Below Lollipop only.
+     *
+     * @param canvas parent's canvas
+     * @param card   Self-explanatory
+     * @return count to restore with {@link #restoreClip(Canvas, View, int)} once the card is drawn
+     */
+    int clip(Canvas canvas, View card) {
+        final int width = card.getWidth();
+        final int height = card.getHeight();
+
+        if (isPathClipSupported()) {
+            final int saveCount = canvas.save();
+
+            // Only the clip is kept, the card applying its own transformation when drawn
+            final int matrixSaveCount = canvas.save(Canvas.MATRIX_SAVE_FLAG);
+            applyTransformation(canvas, card);
+            canvas.clipPath(getClipPath(width, height));
+            canvas.restoreToCount(matrixSaveCount);
+
+            return saveCount;
+        }
+
+        // The card is drawn into a layer covering its bounds, its corners being cut out after
+        cardRect.set(0, 0, width, height);
+        card.getMatrix().mapRect(cardRect);
+        cardRect.offset(card.getLeft(), card.getTop());
+
+        return canvas.saveLayer(cardRect, null, Canvas.ALL_SAVE_FLAG);
+    }
+
+    /**
+     * Removes the clip set by {@link #clip(Canvas, View)}, once the card has been drawn
+     *
+     * @param canvas    parent's canvas
+     * @param card      Self-explanatory
+     * @param saveCount count returned by {@link #clip(Canvas, View)}
+     */
+    void restoreClip(Canvas canvas, View card, int saveCount) {
+        if (!isPathClipSupported()) {
+            applyTransformation(canvas, card);
+            drawCornerMask(canvas, card.getWidth(), card.getHeight());
+        }
+
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * @return the rounded shape of a card, rebuilt only when the size changed
+     */
+    private Path getClipPath(int width, int height) {
+        if (width != clipWidth || height != clipHeight || clipPath.isEmpty()) {
+            clipWidth = width;
+            clipHeight = height;
+            cardRect.set(0, 0, width, height);
+            clipPath.reset();
+            clipPath.addRoundRect(cardRect, cornerRadius, cornerRadius, Path.Direction.CW);
+        }
+
+        return clipPath;
+    }
+
+    /**
+     * Erases the outside of the rounded corners of a card from the layer holding it
+     */
+    private void drawCornerMask(Canvas canvas, int width, int height) {
+        final Bitmap mask = getCornerMask();
+        final int corner = sharedCornerMaskRadius;
+        final int size = mask.getWidth();
+
+        drawSlice(canvas, mask, maskPaint, 0, 0, corner, corner, 0, 0, corner, corner);
+        drawSlice(canvas, mask, maskPaint, size - corner, 0, size, corner, width - corner, 0, width, corner);
+        drawSlice(canvas, mask, maskPaint, 0, size - corner, corner, size, 0, height - corner, corner, height);
+        drawSlice(canvas, mask, maskPaint, size - corner, size - corner, size, size, width - corner, height - corner, width, height);
+    }
+
+    /**
+     * Moves the canvas to the coordinates of a card, with its current transformation
+     */
+    private static void applyTransformation(Canvas canvas, View card) {
+        canvas.translate(card.getLeft(), card.getTop());
+        canvas.concat(card.getMatrix());
+    }
+
+    /**
+     * @return the shared corner mask, built once for the current radius
+     */
+    private Bitmap getCornerMask() {
+        final int radius = (int) Math.ceil(cornerRadius);
+
+        if (sharedCornerMask != null && sharedCornerMaskRadius == radius) return sharedCornerMask;
+
+        final int size = 2 * radius + 1;
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.BLACK);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+        canvas.drawRoundRect(new RectF(0, 0, size, size), radius, radius, paint);
+
+        sharedCornerMask = bitmap;
+        sharedCornerMaskRadius = radius;
+
+        return bitmap;
+    }
+
+    /**
+     * @return the shared shadow bitmap, built once for the current radius and elevation
+     */
+    private Bitmap getShadowBitmap() {
+        final int radius = (int) Math.ceil(cornerRadius);
+        final int blur = (int) Math.ceil(elevation);
+
+        if (sharedShadowBitmap != null && sharedShadowRadius == radius && sharedShadowBlur == blur) {
+            return sharedShadowBitmap;
+        }
+
+        final int corner = radius + blur;
+        final int size = 2 * corner + 1;
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(SHADOW_COLOR);
+        if (blur > 0) paint.setMaskFilter(new BlurMaskFilter(blur, BlurMaskFilter.Blur.NORMAL));
+
+        canvas.drawRoundRect(new RectF(blur, blur, size - blur, size - blur), radius, radius, paint);
+
+        sharedShadowBitmap = bitmap;
+        sharedShadowRadius = radius;
+        sharedShadowBlur = blur;
+
+        return bitmap;
+    }
+}
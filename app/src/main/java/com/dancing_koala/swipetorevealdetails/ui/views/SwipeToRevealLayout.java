@@ -3,37 +3,118 @@ package com.dancing_koala.swipetorevealdetails.ui.views;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
-import android.support.v7.widget.CardView;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.Gravity;
 import android.view.InflateException;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.WindowManager;
 import android.widget.FrameLayout;
 
 import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.core.CardGeometry;
+import com.dancing_koala.swipetorevealdetails.ui.animations.FrameClock;
 import com.dancing_koala.swipetorevealdetails.ui.listeners.FrontViewTouchListener;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfCounters;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.SwipeMetricsListener;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.SwipeMetricsRecorder;
+import com.dancing_koala.swipetorevealdetails.ui.replay.GestureRecorder;
+import com.dancing_koala.swipetorevealdetails.ui.replay.GestureReplayer;
 
 public class SwipeToRevealLayout extends FrameLayout {
 
+    /**
+     * Notified when a swipe settles the card in a new state
+     */
+    public interface OnRevealChangeListener {
+        /**
+         * @param layout   Self-explanatory
+         * @param revealed true when the back view is revealed, false when collapsed
+         */
+        void onRevealChanged(SwipeToRevealLayout layout, boolean revealed);
+    }
+
+    /**
+     * Follows the reveal progress while dragging and settling, to drive effects such as
+     * parallax or dimming. Called on the main thread once per frame at most, only when the
+     * progress changed.
+     */
+    public interface OnRevealProgressListener {
+        /**
+         * @param layout   Self-explanatory
+         * @param progress from 0 when collapsed to 1 when revealed
+         * @param offset   distance the front view is swiped up, in pixels
+         */
+        void onRevealProgress(SwipeToRevealLayout layout, float progress, float offset);
+    }
+
+    /**
+     * Notified when the back view content is inflated or dropped, so that it can be bound lazily
+     */
+    public interface OnBackViewContentListener {
+        /**
+         * Called once the content is added, before it is measured
+         *
+         * @param layout  Self-explanatory
+         * @param content root of the back view content
+         */
+        void onBackViewInflated(SwipeToRevealLayout layout, View content);
+
+        /**
+         * @param layout Self-explanatory
+         */
+        void onBackViewReleased(SwipeToRevealLayout layout);
+    }
+
     private static final int DEFAULT_BACKVIEW_MARGIN_H = 32;
     private static final int DEFAULT_BACKVIEW_MARGIN_V = 32;
     private static final int DEFAULT_CORNER_RADIUS = 24;
+    private static final int DEFAULT_CARD_ELEVATION = 4;
+
+    /**
+     * Cards allowed on hardware layers at the same time, whatever the count of live pages: the
+     * one being swiped and one still settling
+     */
+    private static final int MAX_ANIMATION_LAYERS = 2;
 
-    private boolean inLayout;
+    /**
+     * Count of cards on hardware layers, only touched from the main thread
+     */
+    private static int animationLayerCount;
+
+    private boolean animationLayersEnabled;
+    private boolean hasAnimationLayer;
+    private boolean geometryDirty;
     private FrontViewTouchListener frontViewTouchListener;
+    private int backViewLayoutID;
+    private int backViewContentHeight;
     private int backviewInnerMarginH;
     private int backviewInnerMarginV;
     private int frontViewHeight;
     private int frontViewWidth;
     private int heightMeasureSpec;
     private int widthMeasureSpec;
-    private int height;
-    private int width;
+    private RoundedCardRenderer cardRenderer;
     private View backView;
+    private View backViewContent;
     private View frontView;
+    private OnBackViewContentListener onBackViewContentListener;
+
+    /**
+     * Geometry computed from the measure specs and the styled attributes, kept until one of them
+     * changes: card sizes, scales and positions, and children measure specs.
+     */
+    private CardGeometry cardGeometry;
+    private int frontWidthSpec;
+    private int frontHeightSpec;
+    private int backWidthSpec;
+    private int backHeightSpec;
 
     /**
      * @see FrameLayout#FrameLayout(Context)
@@ -74,6 +155,7 @@ public class SwipeToRevealLayout extends FrameLayout {
         int backViewID = ta.getResourceId(R.styleable.SwipeToRevealLayout_layout_backview, -1);
         int frontViewID = ta.getResourceId(R.styleable.SwipeToRevealLayout_layout_frontview, -1);
         int cornerRadius = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_corner_radius, DEFAULT_CORNER_RADIUS);
+        int cardElevation = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_card_elevation, DEFAULT_CARD_ELEVATION);
 
         frontViewHeight = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_frontview_height, -1);
         frontViewWidth = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_frontview_width, -1);
@@ -81,15 +163,60 @@ public class SwipeToRevealLayout extends FrameLayout {
         backviewInnerMarginH = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_backview_inner_margin_h, DEFAULT_BACKVIEW_MARGIN_H);
         backviewInnerMarginV = ta.getDimensionPixelSize(R.styleable.SwipeToRevealLayout_backview_inner_margin_v, DEFAULT_BACKVIEW_MARGIN_V);
 
+        boolean lazyBackView = ta.getBoolean(R.styleable.SwipeToRevealLayout_lazy_backview, false);
+
         ta.recycle();
 
         if (backViewID == -1 || frontViewID == -1)
             throw new InflateException("You have to provide a frontview layout and a backview layout.");
 
-        // Putting the frontview into a CardView
-        CardView frontCardView = new CardView(context);
-        frontCardView.setRadius(cornerRadius);
-        frontCardView.addView(View.inflate(context, frontViewID, null), new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        // The frontview content is the front card itself, clipped to the rounded corners
+        frontView = View.inflate(context, frontViewID, null);
+        PerfCounters.countInflation();
+
+        // The backview card surface, its content being added now or on the first reveal
+        GradientDrawable backCardBackground = new GradientDrawable();
+        backCardBackground.setColor(Color.WHITE);
+        backCardBackground.setCornerRadius(cornerRadius);
+
+        backView = new FrameLayout(context);
+        backView.setBackground(backCardBackground);
+        backView.setAlpha(0f);
+
+        cardRenderer = new RoundedCardRenderer(cornerRadius, cardElevation);
+        cardRenderer.setUp(frontView, true);
+        cardRenderer.setUp(backView, false);
+
+        cardGeometry = new CardGeometry();
+        cardGeometry.setSizes(frontViewWidth, frontViewHeight, backviewInnerMarginH, backviewInnerMarginV);
+
+        addView(backView, new LayoutParams(cardGeometry.getBackWidth(), cardGeometry.getBackHeight()));
+        addView(frontView, new LayoutParams(cardGeometry.getFrontWidth(), cardGeometry.getFrontHeight()));
+
+        geometryDirty = true;
+        animationLayersEnabled = true;
+        backViewLayoutID = backViewID;
+        frontViewTouchListener = new FrontViewTouchListener();
+        frontViewTouchListener.setRevealLayout(this);
+        frontViewTouchListener.setBackView(backView);
+        frontViewTouchListener.setFrontView(frontView);
+        frontView.setOnTouchListener(frontViewTouchListener);
+
+        if (lazyBackView) {
+            // Measure and layout skip the empty back card until its content is inflated
+            backView.setVisibility(GONE);
+        } else {
+            prefetchBackView();
+        }
+    }
+
+    /**
+     * Inflates the back view content if it has not been done yet. Called on the first touch
+     * of the front view when lazy_backview is set, can also be called by the app to prepare
+     * a card ahead of time.
+     */
+    public void prefetchBackView() {
+        if (backViewContent != null) return;
 
         // Setting the LayoutParams for the content of the backview
         FrameLayout.LayoutParams params = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
@@ -98,107 +225,367 @@ public class SwipeToRevealLayout extends FrameLayout {
         params.leftMargin = backviewInnerMarginH;
         params.bottomMargin = backviewInnerMarginV;
         params.topMargin = backviewInnerMarginV;
-        // Putting the backview into a CardView
-        View backViewContent = View.inflate(context, backViewID, null);
-        CardView backCardView = new CardView(context);
-        backCardView.setRadius(cornerRadius);
-        backCardView.setAlpha(0f);
-        backCardView.addView(backViewContent, params);
 
-        // Assigning cardviews as frontview and backview
-        frontView = frontCardView;
-        backView = backCardView;
+        backViewContent = View.inflate(getContext(), backViewLayoutID, null);
+        PerfCounters.countInflation();
+        ((ViewGroup) backView).addView(backViewContent, params);
+        updateBackViewVisibility();
 
-        addView(backView);
-        addView(frontView);
+        if (onBackViewContentListener != null) onBackViewContentListener.onBackViewInflated(this, backViewContent);
 
-        inLayout = false;
-        frontViewTouchListener = new FrontViewTouchListener();
-        frontViewTouchListener.setBackviewContentID(backViewContent.getId());
+        if (!geometryDirty) {
+            // Already laid out, the back view is measured and positioned right away so that
+            // its height is known by the ongoing gesture.
+            backView.measure(backWidthSpec, backHeightSpec);
+            layoutBackView();
+        }
     }
 
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    /**
+     * Pushes the back view content height to the listener when it changed, so that the touch
+     * path never has to look it up.
+     */
+    private void updateBackViewContentHeight() {
+        if (backViewContent == null) return;
+
+        final int contentHeight = backViewContent.getHeight();
+
+        if (contentHeight != backViewContentHeight) {
+            backViewContentHeight = contentHeight;
+            frontViewTouchListener.setBackViewHeight(contentHeight);
+        }
+    }
+
+    /**
+     * Resets the swipe state (front view Y, back view scale and alpha) so a detached item
+     * can be bound to another position without being inflated again. A lazy back view keeps
+     * its content once inflated, a collapsed card showing none of it.
+     */
+    public void resetSwipeState() {
+        frontViewTouchListener.reset(frontView);
+    }
+
+    /**
+     * Puts the card in the revealed or collapsed state without animation, typically to restore
+     * the state of a recycled item. The listener is not notified.
+     *
+     * @param revealed Self-explanatory
+     */
+    public void setRevealed(boolean revealed) {
+        // The back view content is needed to know how far the front view goes
+        if (revealed) prefetchBackView();
+
+        frontViewTouchListener.setRevealed(revealed);
+    }
+
+    /**
+     * @return true if the last swipe or {@link #setRevealed(boolean)} left the card revealed
+     */
+    public boolean isRevealed() {
+        return frontViewTouchListener.isRevealed();
+    }
+
+    /**
+     * @see FrontViewTouchListener#addOnRevealProgressListener(OnRevealProgressListener)
+     */
+    public void addOnRevealProgressListener(OnRevealProgressListener listener) {
+        frontViewTouchListener.addOnRevealProgressListener(listener);
+    }
+
+    /**
+     * @see FrontViewTouchListener#removeOnRevealProgressListener(OnRevealProgressListener)
+     */
+    public void removeOnRevealProgressListener(OnRevealProgressListener listener) {
+        frontViewTouchListener.removeOnRevealProgressListener(listener);
+    }
+
+    /**
+     * @return how far the back view is revealed, from 0 when collapsed to 1 when revealed
+     */
+    public float getRevealProgress() {
+        return frontViewTouchListener.getRevealProgress();
+    }
+
+    public void setOnRevealChangeListener(OnRevealChangeListener onRevealChangeListener) {
+        frontViewTouchListener.setOnRevealChangeListener(onRevealChangeListener);
+    }
+
+    /**
+     * @see FrontViewTouchListener#setRevealHoldTime(long)
+     */
+    public void setRevealHoldTime(long revealHoldTime) {
+        frontViewTouchListener.setRevealHoldTime(revealHoldTime);
+    }
+
+    /**
+     * Drops the back view content to free memory, if the card rests collapsed. The content is
+     * inflated again on the next touch or reveal, as with lazy_backview.
+     *
+     * @return true if the content was dropped
+     */
+    public boolean releaseBackView() {
+        if (backViewContent == null || !frontViewTouchListener.isCollapsed()) return false;
+
+        ((ViewGroup) backView).removeView(backViewContent);
+        backViewContent = null;
+        backViewContentHeight = 0;
+        backView.setVisibility(GONE);
+
+        if (onBackViewContentListener != null) onBackViewContentListener.onBackViewReleased(this);
+
+        return true;
+    }
+
+    /**
+     * Enables putting the back view on a hardware layer while it is dragged or settling, its
+     * scale and alpha then being applied to the layer instead of redrawing the card. Enabled by
+     * default, the layer being released as soon as the card stops moving.
+     *
+     * @param animationLayersEnabled Self-explanatory
+     */
+    public void setAnimationLayersEnabled(boolean animationLayersEnabled) {
+        this.animationLayersEnabled = animationLayersEnabled;
 
-        this.widthMeasureSpec = widthMeasureSpec;
-        this.heightMeasureSpec = heightMeasureSpec;
+        if (!animationLayersEnabled) releaseAnimationLayer();
+    }
+
+    /**
+     * Called by the touch listener when the views start and stop moving
+     *
+     * @param animating true from the drag start until the card rests
+     */
+    public void setRevealAnimating(boolean animating) {
+        if (animating) {
+            acquireAnimationLayer();
+        } else {
+            releaseAnimationLayer();
+        }
+    }
+
+    /**
+     * Called by the touch listener whenever the back view alpha changes. The fully transparent
+     * back view is made invisible, which leaves it out of the drawing while still laid out, and
+     * visible again as soon as it fades in. A back view without content stays gone.
+     */
+    public void updateBackViewVisibility() {
+        if (backViewContent == null) return;
+
+        final int visibility = backView.getAlpha() > 0f ? VISIBLE : INVISIBLE;
 
-        width = MeasureSpec.getSize(widthMeasureSpec);
-        height = MeasureSpec.getSize(heightMeasureSpec);
+        if (backView.getVisibility() != visibility) backView.setVisibility(visibility);
+    }
+
+    /**
+     * Puts the back view on a hardware layer, unless too many cards already are
+     */
+    private void acquireAnimationLayer() {
+        if (!animationLayersEnabled || hasAnimationLayer || animationLayerCount >= MAX_ANIMATION_LAYERS) return;
+
+        hasAnimationLayer = true;
+        animationLayerCount++;
+        backView.setLayerType(LAYER_TYPE_HARDWARE, null);
+    }
+
+    private void releaseAnimationLayer() {
+        if (!hasAnimationLayer) return;
+
+        hasAnimationLayer = false;
+        animationLayerCount--;
+        backView.setLayerType(LAYER_TYPE_NONE, null);
+    }
+
+    public boolean isBackViewInflated() {
+        return backViewContent != null;
+    }
 
-        if (!frontViewTouchListener.hasBackView()) {
-            frontViewTouchListener.setBackView(backView);
-            frontView.setOnTouchListener(frontViewTouchListener);
+    /**
+     * @return root of the back view content, null until inflated
+     */
+    public View getBackViewContent() {
+        return backViewContent;
+    }
+
+    public void setOnBackViewContentListener(OnBackViewContentListener onBackViewContentListener) {
+        this.onBackViewContentListener = onBackViewContentListener;
+    }
+
+    /**
+     * @see FrontViewTouchListener#setTouchPredictionEnabled(boolean)
+     */
+    public void setTouchPredictionEnabled(boolean touchPredictionEnabled) {
+        frontViewTouchListener.setTouchPredictionEnabled(touchPredictionEnabled);
+    }
+
+    /**
+     * @see FrontViewTouchListener#setRenderThreadSettleEnabled(boolean)
+     */
+    public void setRenderThreadSettleEnabled(boolean renderThreadSettleEnabled) {
+        frontViewTouchListener.setRenderThreadSettleEnabled(renderThreadSettleEnabled);
+    }
+
+    /**
+     * Enables the gestures metrics, reported once each swipe has settled. Must be called from
+     * the main thread.
+     *
+     * @param swipeMetricsListener receiver of the metrics, null to disable them
+     */
+    public void setSwipeMetricsListener(SwipeMetricsListener swipeMetricsListener) {
+        if (swipeMetricsListener == null) {
+            frontViewTouchListener.setMetricsRecorder(null);
+            return;
         }
+
+        SwipeMetricsRecorder recorder = new SwipeMetricsRecorder(swipeMetricsListener);
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        recorder.setRefreshRate(windowManager.getDefaultDisplay().getRefreshRate());
+
+        frontViewTouchListener.setMetricsRecorder(recorder);
+    }
+
+    /**
+     * Records the touch events of the front view, to be replayed by a {@link GestureReplayer}
+     *
+     * @param gestureRecorder recorder of the events, null to stop recording
+     */
+    public void setGestureRecorder(GestureRecorder gestureRecorder) {
+        frontViewTouchListener.setGestureRecorder(gestureRecorder);
+    }
+
+    /**
+     * Replaces the source of the frames the swipe animations are paced with
+     *
+     * @param frameClock source of the frames, null for the Choreographer
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        frontViewTouchListener.setFrameClock(frameClock);
+    }
+
+    /**
+     * Hands a touch event straight to the front view's touch listener, whatever its coordinates.
+     * Used to replay recorded gestures.
+     *
+     * @param event touch event, in screen coordinates
+     * @return true if the event was consumed
+     */
+    public boolean dispatchFrontViewTouchEvent(MotionEvent event) {
+        return frontViewTouchListener.onTouch(frontView, event);
+    }
+
+    /**
+     * @return how far the front view is currently swiped up, in pixels
+     */
+    public float getRevealOffset() {
+        return frontViewTouchListener.getRevealOffset();
+    }
+
+    public int getFrontViewWidth() {
+        return frontViewWidth;
+    }
+
+    public int getFrontViewHeight() {
+        return frontViewHeight;
     }
 
     @Override
-    public void requestLayout() {
-        if (!inLayout) super.requestLayout();
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // A detached page does not keep its layer while waiting to be reused
+        releaseAnimationLayer();
     }
 
     @Override
-    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        inLayout = true;
-        addAndPositionChild(frontView, true);
-        addAndPositionChild(backView, false);
-        inLayout = false;
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (RoundedCardRenderer.isPlatformRendered()) return super.drawChild(canvas, child, drawingTime);
+
+        // Below Lollipop, the shadows and the rounded clipping are drawn here
+        cardRenderer.drawShadow(canvas, child);
+
+        if (child != frontView || child.getVisibility() != VISIBLE) return super.drawChild(canvas, child, drawingTime);
+
+        final int saveCount = cardRenderer.clip(canvas, frontView);
+        final boolean more = super.drawChild(canvas, child, drawingTime);
+        cardRenderer.restoreClip(canvas, frontView, saveCount);
+
+        return more;
     }
 
-    private void addAndPositionChild(View child, boolean isFrontView) {
-        FrameLayout.LayoutParams params;
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        PerfCounters.countMeasure();
 
-        if (child.getLayoutParams() == null) {
-            params = new FrameLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-            child.setLayoutParams(params);
-        } else {
-            params = (FrameLayout.LayoutParams) child.getLayoutParams();
+        final boolean specsChanged = geometryDirty
+                || widthMeasureSpec != this.widthMeasureSpec
+                || heightMeasureSpec != this.heightMeasureSpec;
+
+        if (specsChanged) {
+            this.widthMeasureSpec = widthMeasureSpec;
+            this.heightMeasureSpec = heightMeasureSpec;
+            computeChildSpecs();
         }
 
-        if (!isFrontView) {
-            params.width = frontViewWidth + 2 * backviewInnerMarginH;
-            params.height = frontViewHeight + 2 * backviewInnerMarginV;
+        // Only the children whose content changed are measured again
+        if (specsChanged || frontView.isLayoutRequested()) {
+            frontView.measure(frontWidthSpec, frontHeightSpec);
+        }
 
-            child.setScaleX((float) frontViewWidth / params.width);
-            child.setScaleY((float) frontViewHeight / params.height);
+        if (backView.getVisibility() != GONE && (specsChanged || backView.isLayoutRequested())) {
+            backView.measure(backWidthSpec, backHeightSpec);
+        }
 
-            frontViewTouchListener.setMinScaleX((float) frontViewWidth / params.width);
-            frontViewTouchListener.setMinScaleY((float) frontViewHeight / params.height);
+        setMeasuredDimension(
+                resolveSize(cardGeometry.getBackWidth() + getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(cardGeometry.getBackHeight() + getPaddingTop() + getPaddingBottom(), heightMeasureSpec)
+        );
+    }
 
-        } else {
-            params.width = frontViewWidth;
-            params.height = frontViewHeight;
-        }
+    /**
+     * Computes the children measure specs and pushes the minimum scales of the back view, all
+     * depending on the styled attributes and on this layout's measure specs.
+     */
+    private void computeChildSpecs() {
+        final int paddingH = getPaddingLeft() + getPaddingRight();
+        final int paddingV = getPaddingTop() + getPaddingBottom();
 
-        final boolean needToMeasure = child.isLayoutRequested();
+        frontWidthSpec = getChildMeasureSpec(widthMeasureSpec, paddingH, cardGeometry.getFrontWidth());
+        frontHeightSpec = getChildMeasureSpec(heightMeasureSpec, paddingV, cardGeometry.getFrontHeight());
+        backWidthSpec = getChildMeasureSpec(widthMeasureSpec, paddingH, cardGeometry.getBackWidth());
+        backHeightSpec = getChildMeasureSpec(heightMeasureSpec, paddingV, cardGeometry.getBackHeight());
 
-        if (needToMeasure) {
-            int childWidthSpec = getChildMeasureSpec(
-                    widthMeasureSpec,
-                    getPaddingLeft() + getPaddingRight() + params.leftMargin + params.rightMargin,
-                    params.width
-            );
+        frontViewTouchListener.setMinScale(cardGeometry.getMinScaleX(), cardGeometry.getMinScaleY());
+    }
 
-            int childHeightSpec = getChildMeasureSpec(
-                    heightMeasureSpec,
-                    getPaddingTop() + getPaddingBottom() + params.topMargin + params.bottomMargin,
-                    params.height
-            );
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        PerfCounters.countLayout();
 
-            child.measure(childWidthSpec, childHeightSpec);
-        } else {
-            cleanupLayoutState(child);
+        final boolean positionsChanged = changed || geometryDirty;
+
+        if (positionsChanged) {
+            // Positions computed from the card sizes as a lazy back view has not been measured yet
+            cardGeometry.center(right - left, bottom - top);
+            geometryDirty = false;
         }
 
-        int w = child.getMeasuredWidth();
-        int h = child.getMeasuredHeight();
+        // Nothing to do when neither the geometry nor the children changed
+        if (positionsChanged || frontView.isLayoutRequested()) {
+            final int frontLeft = cardGeometry.getFrontLeft();
+            final int frontTop = cardGeometry.getFrontTop();
+            frontView.layout(frontLeft, frontTop, frontLeft + frontView.getMeasuredWidth(), frontTop + frontView.getMeasuredHeight());
+            frontViewTouchListener.setOriginY(frontTop);
+        }
 
-        int left = width / 2 - w / 2;
-        int top = height / 2 - h / 2;
-        int right = left + w;
-        int bottom = top + h;
+        if (backView.getVisibility() != GONE && (positionsChanged || backView.isLayoutRequested())) {
+            layoutBackView();
+        }
+    }
 
-        child.layout(left, top, right, bottom);
+    /**
+     * Positions the back view and pushes its content height if it changed
+     */
+    private void layoutBackView() {
+        final int backLeft = cardGeometry.getBackLeft();
+        final int backTop = cardGeometry.getBackTop();
+        backView.layout(backLeft, backTop, backLeft + backView.getMeasuredWidth(), backTop + backView.getMeasuredHeight());
+        updateBackViewContentHeight();
     }
 }
@@ -0,0 +1,278 @@
+package com.dancing_koala.swipetorevealdetails.ui.views;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.Gravity;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.TextView;
+
+import com.dancing_koala.swipetorevealdetails.R;
+
+import java.util.Locale;
+
+/**
+ * View drawing a single text {@link Layout}, which can be built ahead of time off the main
+ * thread and handed over with {@link #setTextLayout(CharSequence, Layout)}, so that displaying
+ * a new text involves no line breaking nor text shaping. Texts set with {@link #setText(CharSequence)} are
+ * laid out on the next measure pass, as a TextView would.
+ * Supports the text size, color, shadow, all caps and horizontal gravity attributes. The text
+ * is exposed to accessibility services as a TextView's would be.
+ */
+public class TextLayoutView extends View {
+
+    private static final int DEFAULT_TEXT_SIZE = 32;
+
+    /**
+     * Paint used to lay out and draw the text, never touched off the main thread
+     */
+    private TextPaint textPaint;
+
+    private Layout.Alignment alignment;
+    private boolean allCaps;
+    private CharSequence text;
+
+    /**
+     * Current layout of the text, null until the next measure pass when the text changed
+     */
+    private Layout textLayout;
+
+    /**
+     * @see View#View(Context)
+     */
+    public TextLayoutView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet)
+     */
+    public TextLayoutView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet, int)
+     */
+    public TextLayoutView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    /**
+     * @see View#View(Context, AttributeSet, int, int)
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public TextLayoutView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        init(context, attrs);
+    }
+
+    /**
+     * Initializes the view fields
+     *
+     * @param context Instanciation context
+     * @param attrs   Style attributes
+     */
+    private void init(Context context, AttributeSet attrs) {
+        TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.TextLayoutView);
+
+        textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.density = getResources().getDisplayMetrics().density;
+        textPaint.setTextSize(ta.getDimension(R.styleable.TextLayoutView_android_textSize, DEFAULT_TEXT_SIZE));
+        textPaint.setColor(ta.getColor(R.styleable.TextLayoutView_android_textColor, Color.BLACK));
+
+        float shadowRadius = ta.getFloat(R.styleable.TextLayoutView_android_shadowRadius, 0f);
+
+        if (shadowRadius > 0) {
+            textPaint.setShadowLayer(shadowRadius,
+                    ta.getFloat(R.styleable.TextLayoutView_android_shadowDx, 0f),
+                    ta.getFloat(R.styleable.TextLayoutView_android_shadowDy, 0f),
+                    ta.getColor(R.styleable.TextLayoutView_android_shadowColor, Color.TRANSPARENT));
+        }
+
+        int gravity = ta.getInt(R.styleable.TextLayoutView_android_gravity, Gravity.START);
+
+        switch (gravity & Gravity.HORIZONTAL_GRAVITY_MASK) {
+            case Gravity.CENTER_HORIZONTAL:
+                alignment = Layout.Alignment.ALIGN_CENTER;
+                break;
+            case Gravity.RIGHT:
+            case Gravity.END:
+                alignment = Layout.Alignment.ALIGN_OPPOSITE;
+                break;
+            default:
+                alignment = Layout.Alignment.ALIGN_NORMAL;
+        }
+
+        allCaps = ta.getBoolean(R.styleable.TextLayoutView_android_textAllCaps, false);
+        text = ta.getText(R.styleable.TextLayoutView_android_text);
+
+        ta.recycle();
+
+        // Not clickable nor described, the view would be skipped by accessibility services
+        if (getImportantForAccessibility() == IMPORTANT_FOR_ACCESSIBILITY_AUTO) {
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_YES);
+        }
+    }
+
+    /**
+     * Sets the text, laid out on the next measure pass
+     *
+     * @param text Self-explanatory, may be null
+     */
+    public void setText(CharSequence text) {
+        if (TextUtils.equals(this.text, text)) return;
+
+        this.text = text;
+        textLayout = null;
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Displays a layout built with {@link #buildLayout(CharSequence, TextPaint, int, Layout.Alignment)}
+     * from a copy of this view's paint. The view is only laid out again when the layout size
+     * differs from the current one.
+     *
+     * @param text   original text of the layout, before any transformation
+     * @param layout Self-explanatory
+     */
+    public void setTextLayout(CharSequence text, Layout layout) {
+        final boolean sizeChanged = textLayout == null
+                || textLayout.getWidth() != layout.getWidth()
+                || textLayout.getHeight() != layout.getHeight();
+
+        this.text = text;
+        textLayout = layout;
+
+        if (sizeChanged) requestLayout();
+        invalidate();
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * @return a copy of the paint the text is drawn with, to build layouts on another thread
+     */
+    public TextPaint copyTextPaint() {
+        return new TextPaint(textPaint);
+    }
+
+    public Layout.Alignment getAlignment() {
+        return alignment;
+    }
+
+    public boolean isAllCaps() {
+        return allCaps;
+    }
+
+    /**
+     * Transforms a text as it is displayed
+     *
+     * @param text    Self-explanatory, may be null
+     * @param allCaps whether the text is displayed in upper case
+     * @return the transformed text, never null
+     */
+    public static CharSequence transformText(CharSequence text, boolean allCaps) {
+        if (text == null) return "";
+
+        return allCaps ? text.toString().toUpperCase(Locale.getDefault()) : text;
+    }
+
+    /**
+     * Lays out a text, callable from any thread with a paint used by that thread only
+     *
+     * @param text      transformed text
+     * @param paint     Self-explanatory
+     * @param width     width available for the text, padding excluded
+     * @param alignment Self-explanatory
+     * @return the layout
+     */
+    public static Layout buildLayout(CharSequence text, TextPaint paint, int width, Layout.Alignment alignment) {
+        return new StaticLayout(text, paint, Math.max(width, 0), alignment, 1f, 0f, true);
+    }
+
+    /**
+     * @see View#onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo)
+     */
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        info.setClassName(TextView.class.getName());
+
+        if (!TextUtils.isEmpty(text)) info.setText(text);
+    }
+
+    /**
+     * @see View#onPopulateAccessibilityEvent(AccessibilityEvent)
+     */
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+
+        if (!TextUtils.isEmpty(text)) event.getText().add(text);
+    }
+
+    /**
+     * @see View#onInitializeAccessibilityEvent(AccessibilityEvent)
+     */
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setClassName(TextView.class.getName());
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int paddingH = getPaddingLeft() + getPaddingRight();
+        final int paddingV = getPaddingTop() + getPaddingBottom();
+
+        int width;
+
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY) {
+            width = MeasureSpec.getSize(widthMeasureSpec);
+        } else {
+            int desiredWidth = textLayout != null
+                    ? textLayout.getWidth()
+                    : (int) Math.ceil(Layout.getDesiredWidth(transformText(text, allCaps), textPaint));
+            width = resolveSize(desiredWidth + paddingH, widthMeasureSpec);
+        }
+
+        final int layoutWidth = Math.max(width - paddingH, 0);
+
+        if (textLayout == null || textLayout.getWidth() != layoutWidth) {
+            // Nothing was precomputed for this width, the text is laid out now
+            textLayout = buildLayout(transformText(text, allCaps), textPaint, layoutWidth, alignment);
+        }
+
+        setMeasuredDimension(width, resolveSize(textLayout.getHeight() + paddingV, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (textLayout == null) return;
+
+        canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        textLayout.draw(canvas);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,149 @@
+package com.dancing_koala.swipetorevealdetails.ui.adapters;
+
+import android.app.Activity;
+import android.support.v4.view.ViewPager;
+
+import com.dancing_koala.swipetorevealdetails.BuildConfig;
+import com.dancing_koala.swipetorevealdetails.data.CarouselDataSource;
+import com.dancing_koala.swipetorevealdetails.data.CarouselItem;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.AllocationMeter;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfBudget;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfCounters;
+import com.dancing_koala.swipetorevealdetails.ui.pools.ItemViewPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the work done by each page flip of the carousel against its budget, the pager running
+ * its frame after each flip
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class CarouselPagerAdapterPerfTest {
+
+    /**
+     * Fits in the first page of the loader, loaded along with the count
+     */
+    private static final int ITEM_COUNT = 20;
+
+    private static final long LOAD_TIMEOUT_MS = 5000;
+    private static final int WARM_UP_FLIPS = 2;
+
+    /**
+     * Once the pool holds the pages leaving the window, a flip binds the page entering it again,
+     * the pager measuring and laying it out
+     */
+    private static final PerfBudget FLIP_BUDGET = new PerfBudget()
+            .setMaxInflations(0)
+            .setMaxViewLookups(0)
+            .setMaxMeasurePasses(2)
+            .setMaxLayoutPasses(2)
+            .setMaxAllocatedBytes(2 * 1024 * 1024);
+
+    private ViewPager pager;
+    private CarouselPagerAdapter adapter;
+    private AllocationMeter allocationMeter;
+
+    /**
+     * Items known right away, without any image to decode
+     */
+    private static class FixedDataSource implements CarouselDataSource {
+
+        @Override
+        public int getCount() {
+            return ITEM_COUNT;
+        }
+
+        @Override
+        public List<CarouselItem> load(int start, int count) {
+            List<CarouselItem> items = new ArrayList<>();
+
+            for (int position = start; position < Math.min(start + count, ITEM_COUNT); position++) {
+                items.add(new CarouselItem(position, "Item " + position, 0));
+            }
+
+            return items;
+        }
+    }
+
+    @Before
+    public void setUp() throws InterruptedException {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+
+        // The loads are posted from the loader thread, they only run when the test says so
+        ShadowLooper.pauseMainLooper();
+
+        pager = new ViewPager(activity);
+        activity.setContentView(pager);
+
+        adapter = new CarouselPagerAdapter(activity, new ItemViewPool(activity), new FixedDataSource());
+        pager.setAdapter(adapter);
+
+        awaitItems();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        PerfCounters.setEnabled(true);
+        allocationMeter = new AllocationMeter();
+    }
+
+    @After
+    public void tearDown() {
+        PerfCounters.setEnabled(false);
+        adapter.release();
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void pageFlips_stayWithinBudget() {
+        for (int position = 1; position <= WARM_UP_FLIPS; position++) {
+            flip(position);
+        }
+
+        for (int position = WARM_UP_FLIPS + 1; position < ITEM_COUNT; position++) {
+            PerfCounters.reset();
+            allocationMeter.start();
+
+            flip(position);
+
+            allocationMeter.stop();
+            FLIP_BUDGET.check("page flip to " + position);
+        }
+
+        assertEquals(ITEM_COUNT - 1, pager.getCurrentItem());
+    }
+
+    /**
+     * Moves to a page without animation, then runs the frame drawing it
+     */
+    private void flip(int position) {
+        pager.setCurrentItem(position, false);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    /**
+     * Runs the main thread tasks until the loader has published the items
+     */
+    private void awaitItems() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + LOAD_TIMEOUT_MS;
+
+        while (adapter.getCount() == 0) {
+            if (System.currentTimeMillis() > deadline) fail("The items were not loaded in time");
+
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+    }
+}
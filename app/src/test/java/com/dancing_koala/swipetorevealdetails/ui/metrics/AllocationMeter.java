@@ -0,0 +1,53 @@
+package com.dancing_koala.swipetorevealdetails.ui.metrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures the bytes allocated by the current thread of the JVM running the tests, and adds
+ * them to the {@link PerfCounters}. The JVM management classes are not part of the Android
+ * API the tests are compiled against, they are reached by reflection.
+ */
+public class AllocationMeter {
+
+    private final Object threadBean;
+    private final Method getThreadAllocatedBytes;
+
+    private long startBytes;
+
+    public AllocationMeter() {
+        try {
+            threadBean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean")
+                    .invoke(null);
+
+            // Looked up from the loader of the bean itself, not from the test sandbox
+            Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean", false, threadBean.getClass().getClassLoader());
+            getThreadAllocatedBytes = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+            beanClass.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(threadBean, true);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The JVM does not count the allocated bytes", e);
+        }
+    }
+
+    /**
+     * Starts measuring the allocations of the current thread
+     */
+    public void start() {
+        startBytes = getAllocatedBytes();
+    }
+
+    /**
+     * Adds the bytes allocated since {@link #start()} to the {@link PerfCounters}
+     */
+    public void stop() {
+        PerfCounters.countAllocatedBytes(getAllocatedBytes() - startBytes);
+    }
+
+    private long getAllocatedBytes() {
+        try {
+            return (Long) getThreadAllocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.dancing_koala.swipetorevealdetails.ui.replay;
+
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.dancing_koala.swipetorevealdetails.BuildConfig;
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.ui.views.SwipeToRevealLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records a drag ending with a fling, then replays it through a {@link VirtualFrameClock}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class GestureReplayerTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    private static final long START_TIME = 1000;
+    private static final long FRAME_TIME = 16;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static final int DRAG_MOVES = 6;
+    private static final float DRAG_STEP = 8f;
+    private static final int FLING_MOVES = 3;
+    private static final float FLING_STEP = 40f;
+
+    private static final float OFFSET_TOLERANCE = 0.5f;
+
+    @Test
+    public void replay_givesTheSameResultOnEveryRun() throws IOException {
+        GestureTrace trace = copy(recordDragAndFling());
+        int eventCount = 1 + DRAG_MOVES + FLING_MOVES + 1;
+
+        ReplayResult first = new GestureReplayer(trace).replay(createCard());
+        ReplayResult second = new GestureReplayer(trace).replay(createCard());
+
+        assertEquals(eventCount, first.getEventCount());
+        assertTrue(first.isSettled());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void replay_opensTheCardOnAnUpwardFling() throws IOException {
+        GestureTrace trace = copy(recordDragAndFling());
+        SwipeToRevealLayout card = createCard();
+
+        ReplayResult result = new GestureReplayer(trace).replay(card);
+
+        // Settled open, the front view uncovering the whole back view content
+        assertTrue(result.isSettled());
+        assertTrue(card.isRevealed());
+        assertTrue(result.getFinalRevealOffset() > 0);
+        assertEquals(card.getBackViewContent().getHeight(), result.getFinalRevealOffset(), OFFSET_TOLERANCE);
+    }
+
+    /**
+     * Drags the front view slowly, then flings it upward, the frames being run as the events
+     * arrive
+     */
+    private GestureTrace recordDragAndFling() {
+        final SwipeToRevealLayout card = createCard();
+        final VirtualFrameClock clock = new VirtualFrameClock(START_TIME * NANOS_PER_MILLI);
+        final GestureRecorder recorder = new GestureRecorder();
+        final float x = WIDTH / 2f;
+        float y = HEIGHT / 2f;
+        long eventTime = START_TIME;
+
+        card.setFrameClock(clock);
+        card.setGestureRecorder(recorder);
+
+        dispatch(card, START_TIME, eventTime, MotionEvent.ACTION_DOWN, x, y);
+
+        for (int i = 0; i < DRAG_MOVES + FLING_MOVES; i++) {
+            eventTime += FRAME_TIME;
+            y -= i < DRAG_MOVES ? DRAG_STEP : FLING_STEP;
+
+            clock.advanceTo(eventTime * NANOS_PER_MILLI);
+            dispatch(card, START_TIME, eventTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+
+        eventTime += FRAME_TIME;
+        clock.advanceTo(eventTime * NANOS_PER_MILLI);
+        dispatch(card, START_TIME, eventTime, MotionEvent.ACTION_UP, x, y);
+
+        card.setGestureRecorder(null);
+        return recorder.toTrace();
+    }
+
+    /**
+     * @return the trace written to bytes then read back, as a trace saved to a file would be
+     */
+    private static GestureTrace copy(GestureTrace trace) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+
+        return GestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void dispatch(SwipeToRevealLayout card, long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        card.dispatchFrontViewTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * @return a card measured and laid out, its back view not inflated yet
+     */
+    private static SwipeToRevealLayout createCard() {
+        SwipeToRevealLayout card = (SwipeToRevealLayout) LayoutInflater.from(RuntimeEnvironment.application)
+                .inflate(R.layout.strd_item, null);
+
+        card.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        card.layout(0, 0, WIDTH, HEIGHT);
+        return card;
+    }
+}
@@ -0,0 +1,165 @@
+package com.dancing_koala.swipetorevealdetails.ui.views;
+
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.dancing_koala.swipetorevealdetails.BuildConfig;
+import com.dancing_koala.swipetorevealdetails.R;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.AllocationMeter;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfBudget;
+import com.dancing_koala.swipetorevealdetails.ui.metrics.PerfCounters;
+import com.dancing_koala.swipetorevealdetails.ui.replay.VirtualFrameClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the work done by each swipe of a card against its budget: the touch events go through
+ * the front view's touch listener, the drag and settle frames being run by a virtual clock.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SwipeToRevealLayoutPerfTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    private static final long START_TIME = 1000;
+    private static final long FRAME_TIME = 16;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static final int SWIPE_MOVES = 10;
+    private static final float SWIPE_DISTANCE = 150f;
+    private static final int MAX_SETTLE_FRAMES = 600;
+    private static final int MEASURED_SWIPES = 5;
+
+    /**
+     * The first swipe of a lazy card inflates its back view content, which is then measured and
+     * laid out once
+     */
+    private static final PerfBudget FIRST_SWIPE_BUDGET = new PerfBudget()
+            .setMaxInflations(1)
+            .setMaxViewLookups(0)
+            .setMaxMeasurePasses(1)
+            .setMaxLayoutPasses(1);
+
+    /**
+     * Later swipes only move views around. The allocations include the test's own events and
+     * the Robolectric overhead.
+     */
+    private static final PerfBudget SWIPE_BUDGET = new PerfBudget()
+            .setMaxInflations(0)
+            .setMaxViewLookups(0)
+            .setMaxMeasurePasses(1)
+            .setMaxLayoutPasses(1)
+            .setMaxAllocatedBytes(1024 * 1024);
+
+    private SwipeToRevealLayout card;
+    private VirtualFrameClock clock;
+    private AllocationMeter allocationMeter;
+    private long eventTime;
+
+    @Before
+    public void setUp() {
+        PerfCounters.setEnabled(true);
+        allocationMeter = new AllocationMeter();
+
+        eventTime = START_TIME;
+        clock = new VirtualFrameClock(START_TIME * NANOS_PER_MILLI);
+
+        card = (SwipeToRevealLayout) LayoutInflater.from(RuntimeEnvironment.application).inflate(R.layout.strd_item, null);
+        card.setFrameClock(clock);
+        layOut();
+    }
+
+    @After
+    public void tearDown() {
+        PerfCounters.setEnabled(false);
+    }
+
+    @Test
+    public void firstSwipe_inflatesTheBackViewOnce() {
+        checkSwipe("first swipe", FIRST_SWIPE_BUDGET, SWIPE_DISTANCE);
+
+        assertTrue(card.isBackViewInflated());
+    }
+
+    @Test
+    public void swipes_stayWithinBudget() {
+        // Back view content inflated and every lazy object created
+        swipe(SWIPE_DISTANCE);
+        swipe(-SWIPE_DISTANCE);
+        layOut();
+
+        for (int i = 0; i < MEASURED_SWIPES; i++) {
+            checkSwipe("swipe up " + i, SWIPE_BUDGET, SWIPE_DISTANCE);
+            checkSwipe("swipe down " + i, SWIPE_BUDGET, -SWIPE_DISTANCE);
+        }
+    }
+
+    /**
+     * Swipes then runs the layout pass that follows, and checks the counts against the budget
+     */
+    private void checkSwipe(String scope, PerfBudget budget, float distance) {
+        PerfCounters.reset();
+        allocationMeter.start();
+
+        swipe(distance);
+        layOut();
+
+        allocationMeter.stop();
+        budget.check(scope);
+    }
+
+    /**
+     * Drags the front view one move per frame, releases it and lets it settle
+     *
+     * @param distance distance dragged, upward when positive
+     */
+    private void swipe(float distance) {
+        final long downTime = eventTime;
+        final float x = WIDTH / 2f;
+        final float startY = HEIGHT / 2f;
+
+        dispatch(downTime, MotionEvent.ACTION_DOWN, x, startY);
+
+        for (int i = 1; i <= SWIPE_MOVES; i++) {
+            nextFrame();
+            dispatch(downTime, MotionEvent.ACTION_MOVE, x, startY - distance * i / SWIPE_MOVES);
+        }
+
+        nextFrame();
+        dispatch(downTime, MotionEvent.ACTION_UP, x, startY - distance);
+
+        clock.runUntilIdle(MAX_SETTLE_FRAMES);
+        eventTime = clock.getNextFrameTimeNanos() / NANOS_PER_MILLI;
+    }
+
+    private void nextFrame() {
+        eventTime += FRAME_TIME;
+        clock.advanceTo(eventTime * NANOS_PER_MILLI);
+    }
+
+    private void dispatch(long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        card.dispatchFrontViewTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Measures and lays out the card, which only does work if a layout was requested
+     */
+    private void layOut() {
+        card.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        card.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
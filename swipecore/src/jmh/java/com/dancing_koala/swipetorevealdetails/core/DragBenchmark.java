@@ -0,0 +1,59 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the computations done for each drag event: offset, bounds, swipe percent and back
+ * view scales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DragBenchmark {
+
+    private static final int BACK_VIEW_HEIGHT = 420;
+    private static final int SAMPLE_COUNT = 256;
+
+    private float[] samplesY;
+    private float verticalThreshold;
+    private float maxOffset;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        verticalThreshold = SwipeMath.verticalThreshold(BACK_VIEW_HEIGHT);
+        maxOffset = SwipeMath.maxDragOffset(BACK_VIEW_HEIGHT, verticalThreshold);
+
+        // A finger going up then down over the whole reveal range
+        samplesY = new float[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            samplesY[i] = 1000f - (float) Math.sin(Math.PI * i / SAMPLE_COUNT) * maxOffset;
+        }
+    }
+
+    @Benchmark
+    public float dragEvent() {
+        index = (index + 1) % SAMPLE_COUNT;
+
+        float offset = SwipeMath.dragOffset(0f, 1000f, samplesY[index]);
+
+        if (offset <= 0 || offset >= maxOffset) return offset;
+
+        float swipePercent = SwipeMath.swipePercent(offset, BACK_VIEW_HEIGHT);
+        return SwipeMath.backScale(swipePercent, 0.84f) + SwipeMath.backScale(swipePercent, 0.9f) + swipePercent;
+    }
+
+    @Benchmark
+    public boolean releaseDecision() {
+        index = (index + 1) % SAMPLE_COUNT;
+        return SwipeMath.shouldOpen(1000f - samplesY[index], samplesY[index] - 500f, verticalThreshold, 150f);
+    }
+}
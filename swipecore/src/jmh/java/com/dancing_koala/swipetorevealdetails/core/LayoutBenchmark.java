@@ -0,0 +1,32 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the card geometry computed when the layout's measure specs or attributes change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LayoutBenchmark {
+
+    private final CardGeometry geometry = new CardGeometry();
+    private int width = 1080;
+
+    @Benchmark
+    public int computeGeometry() {
+        width = width == 1080 ? 1440 : 1080;
+
+        geometry.setSizes(600, 900, 48, 48);
+        geometry.center(width, 1920);
+
+        return geometry.getBackLeft() + geometry.getFrontTop();
+    }
+}
@@ -0,0 +1,50 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the settle: a single frame step, and a whole settle from release to rest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SettleBenchmark {
+
+    private static final float FRAME_DURATION = 1f / 60f;
+    private static final int BACK_VIEW_HEIGHT = 420;
+
+    private SpringSimulation spring;
+
+    @Setup
+    public void setUp() {
+        spring = new SpringSimulation();
+    }
+
+    @Benchmark
+    public float settleFrame() {
+        if (spring.step(FRAME_DURATION)) {
+            spring.reset(0f, BACK_VIEW_HEIGHT, 2000f);
+        }
+
+        float swipePercent = SwipeMath.swipePercent(spring.getValue(), BACK_VIEW_HEIGHT);
+        return SwipeMath.backScale(swipePercent, 0.84f) + swipePercent;
+    }
+
+    @Benchmark
+    public int wholeSettle() {
+        spring.reset(BACK_VIEW_HEIGHT / 2f, BACK_VIEW_HEIGHT, -800f);
+
+        int frames = 1;
+        while (!spring.step(FRAME_DURATION)) frames++;
+
+        return frames;
+    }
+}
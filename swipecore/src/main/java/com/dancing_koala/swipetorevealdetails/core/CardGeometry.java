@@ -0,0 +1,92 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+/**
+ * Sizes and positions of the front and back cards of a swipe-to-reveal layout. The back card is
+ * the front card grown by its inner margins, scaled down to the front card size when collapsed,
+ * both being centered in the layout.
+ */
+public class CardGeometry {
+
+    private int frontWidth;
+    private int frontHeight;
+    private int backWidth;
+    private int backHeight;
+    private float minScaleX;
+    private float minScaleY;
+    private int frontLeft;
+    private int frontTop;
+    private int backLeft;
+    private int backTop;
+
+    /**
+     * Computes the card sizes and the back card minimum scales
+     *
+     * @param frontWidth       front card width
+     * @param frontHeight      front card height
+     * @param backInnerMarginH horizontal margin between the back card and its content
+     * @param backInnerMarginV vertical margin between the back card and its content
+     */
+    public void setSizes(int frontWidth, int frontHeight, int backInnerMarginH, int backInnerMarginV) {
+        this.frontWidth = frontWidth;
+        this.frontHeight = frontHeight;
+        backWidth = frontWidth + 2 * backInnerMarginH;
+        backHeight = frontHeight + 2 * backInnerMarginV;
+
+        // The back card is scaled down to the size of the front card when collapsed
+        minScaleX = (float) frontWidth / backWidth;
+        minScaleY = (float) frontHeight / backHeight;
+    }
+
+    /**
+     * Centers the cards in the layout
+     *
+     * @param width  layout width
+     * @param height layout height
+     */
+    public void center(int width, int height) {
+        frontLeft = width / 2 - frontWidth / 2;
+        frontTop = height / 2 - frontHeight / 2;
+        backLeft = width / 2 - backWidth / 2;
+        backTop = height / 2 - backHeight / 2;
+    }
+
+    public int getFrontWidth() {
+        return frontWidth;
+    }
+
+    public int getFrontHeight() {
+        return frontHeight;
+    }
+
+    public int getBackWidth() {
+        return backWidth;
+    }
+
+    public int getBackHeight() {
+        return backHeight;
+    }
+
+    public float getMinScaleX() {
+        return minScaleX;
+    }
+
+    public float getMinScaleY() {
+        return minScaleY;
+    }
+
+    public int getFrontLeft() {
+        return frontLeft;
+    }
+
+    public int getFrontTop() {
+        return frontTop;
+    }
+
+    public int getBackLeft() {
+        return backLeft;
+    }
+
+    public int getBackTop() {
+        return backTop;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+/**
+ * Damped spring moving a value toward a target, stepped with the elapsed time of each frame.
+ * Nothing is allocated while stepping.
+ */
+public class SpringSimulation {
+
+    public static final float DEFAULT_STIFFNESS = 600f;
+    public static final float DEFAULT_DAMPING_RATIO = 1f;
+
+    /**
+     * Integration step, in seconds, frames being split into steps of at most this duration
+     */
+    private static final float MAX_STEP = 0.004f;
+
+    /**
+     * Longest frame duration taken into account, in seconds, so that a stalled frame does not
+     * make the value jump
+     */
+    private static final float MAX_FRAME_DURATION = 0.064f;
+
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 10f;
+
+    private final float stiffness;
+    private final float damping;
+
+    private float value;
+    private float velocity;
+    private float target;
+
+    public SpringSimulation() {
+        this(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+    }
+
+    /**
+     * @param stiffness    spring stiffness
+     * @param dampingRatio 1 for a critically damped spring, lower values make it bounce
+     */
+    public SpringSimulation(float stiffness, float dampingRatio) {
+        this.stiffness = stiffness;
+        damping = 2f * dampingRatio * (float) Math.sqrt(stiffness);
+    }
+
+    /**
+     * @param from     start value
+     * @param to       target value
+     * @param velocity start velocity, in value units per second
+     */
+    public void reset(float from, float to, float velocity) {
+        value = from;
+        target = to;
+        this.velocity = velocity;
+    }
+
+    /**
+     * Advances the spring
+     *
+     * @param elapsed time elapsed since the last step, in seconds
+     * @return true once the value rests on the target
+     */
+    public boolean step(float elapsed) {
+        float remaining = Math.min(elapsed, MAX_FRAME_DURATION);
+
+        // Semi-implicit Euler, stable for the small steps used
+        while (remaining > 0f) {
+            float step = Math.min(remaining, MAX_STEP);
+            float acceleration = -stiffness * (value - target) - damping * velocity;
+            velocity += acceleration * step;
+            value += velocity * step;
+            remaining -= step;
+        }
+
+        if (Math.abs(value - target) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+            value = target;
+            velocity = 0f;
+            return true;
+        }
+
+        return false;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public float getVelocity() {
+        return velocity;
+    }
+
+    public float getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,129 @@
+package com.dancing_koala.swipetorevealdetails.core;
+
+/**
+ * Swipe computations shared by the drag and the settle, free of any platform dependency
+ */
+public final class SwipeMath {
+
+    public static final float
+            MAX_SWIPE_PERCENT = 1.0f,
+            MIN_SWIPE_PERCENT = 0.0f,
+            MAX_SCALE = 1.0f,
+            MIN_SCALE = 0.8f;
+
+    /**
+     * Part of the back view content height to swipe for the card to open on a slow release
+     */
+    private static final float THRESHOLD_DIVIDER = 3f;
+
+    private SwipeMath() {
+    }
+
+    /**
+     * Clamps a float value
+     *
+     * @param val value to clamp
+     * @param min minimum value to use for clamping
+     * @param max maximum value to use for clamping
+     * @return the value clamped
+     */
+    public static float clamp(float val, float min, float max) {
+        return Math.min(Math.max(val, min), max);
+    }
+
+    /**
+     * @param backViewHeight back view content height
+     * @return the reveal offset to exceed for a slow release to open the card
+     */
+    public static float verticalThreshold(int backViewHeight) {
+        return backViewHeight / THRESHOLD_DIVIDER;
+    }
+
+    /**
+     * @param backViewHeight    back view content height
+     * @param verticalThreshold Self-explanatory
+     * @return the reveal offset beyond which the drag stops and the card settles
+     */
+    public static float maxDragOffset(int backViewHeight, float verticalThreshold) {
+        return backViewHeight + verticalThreshold;
+    }
+
+    /**
+     * @param dragStartOffset reveal offset when the finger went down
+     * @param downY           finger Y when it went down, in screen coordinates
+     * @param y               current finger Y, in screen coordinates
+     * @return the reveal offset following the finger
+     */
+    public static float dragOffset(float dragStartOffset, float downY, float y) {
+        return dragStartOffset + (downY - y);
+    }
+
+    /**
+     * Swiping percent calculated with the reveal offset divided by the height of the back view
+     * content and then clamp to make sure the value is between 0 and 1 included.
+     *
+     * @param revealOffset   distance between the front view's original Y and its current Y
+     * @param backViewHeight back view content height
+     * @return the swipe percent, 0 when the height is unknown
+     */
+    public static float swipePercent(float revealOffset, int backViewHeight) {
+        return backViewHeight > 0
+                ? clamp(revealOffset / backViewHeight, MIN_SWIPE_PERCENT, MAX_SWIPE_PERCENT)
+                : MIN_SWIPE_PERCENT;
+    }
+
+    /**
+     * Scale calculated with the swipe percent and then clamp to make sure its value is between
+     * the minimum scale and MAX_SCALE.
+     *
+     * @param swipePercent Self-explanatory
+     * @param minScale     scale when collapsed
+     * @return the back view scale
+     */
+    public static float backScale(float swipePercent, float minScale) {
+        return clamp(swipePercent * (MAX_SCALE - minScale) + minScale, minScale, MAX_SCALE);
+    }
+
+    /**
+     * Decides whether a released card opens: a release faster than the minimum fling velocity
+     * goes in its direction, slower ones depend on the swiped distance.
+     *
+     * @param revealOffset      reveal offset at release
+     * @param velocity          reveal offset velocity, positive when opening
+     * @param verticalThreshold Self-explanatory
+     * @param minFlingVelocity  velocity from which a release is a fling
+     * @return true to settle open
+     */
+    public static boolean shouldOpen(float revealOffset, float velocity, float verticalThreshold, float minFlingVelocity) {
+        if (Math.abs(velocity) > minFlingVelocity) {
+            // Flicked, the direction wins over the distance
+            return velocity > 0;
+        }
+
+        return revealOffset > verticalThreshold;
+    }
+
+    /**
+     * Duration of a decelerating settle starting at the release velocity, an ease-out curve
+     * starting twice as fast as its average speed.
+     *
+     * @param from        reveal offset at release
+     * @param to          reveal offset to settle on
+     * @param velocity    reveal offset velocity, positive when opening
+     * @param minDuration shortest duration, also used when released still or away from the target
+     * @param maxDuration longest duration
+     * @return the settle duration, in the unit of the bounds
+     */
+    public static long settleDuration(float from, float to, float velocity, long minDuration, long maxDuration) {
+        final float distance = to - from;
+
+        if (distance == 0f) return minDuration;
+
+        // Released still or moving away from the target, the curve sets the pace
+        if (velocity == 0f || (velocity > 0f) != (distance > 0f)) return maxDuration;
+
+        final long duration = (long) (2000f * distance / velocity);
+
+        return Math.min(Math.max(duration, minDuration), maxDuration);
+    }
+}